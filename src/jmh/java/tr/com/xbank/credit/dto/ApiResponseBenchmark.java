@@ -0,0 +1,107 @@
+package tr.com.xbank.credit.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import tr.com.xbank.credit.dto.request.LoanFilter;
+import tr.com.xbank.credit.dto.response.InstallmentDto;
+import tr.com.xbank.credit.dto.response.LoanDto;
+import tr.com.xbank.credit.dto.response.LoanPage;
+import tr.com.xbank.credit.dto.response.PaymentResult;
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.Loan;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping and {@link ApiResponse} serialization of the loan endpoints, with an
+ * {@link ObjectMapper} configured like the one Spring Boot builds for the controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiResponseBenchmark {
+
+    private static final String PATH = "/credit/loans";
+
+    private ObjectMapper objectMapper;
+    private Loan loan;
+    private LoanPage loanPage;
+    private List<InstallmentDto> installments;
+    private PaymentResult paymentResult;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Customer customer = new Customer();
+        customer.setId(2L);
+        loan = new Loan();
+        loan.setId(1L);
+        loan.setCustomer(customer);
+        loan.setLoanAmount(new BigDecimal("12000.00"));
+        loan.setInterestRate(new BigDecimal("0.25"));
+        loan.setNumberOfInstallment(24);
+        loan.setCreateDate(LocalDateTime.now());
+
+        List<LoanDto> loans = new ArrayList<>();
+        for (long id = 1; id <= LoanFilter.DEFAULT_LIMIT; id++) {
+            loan.setId(id);
+            loans.add(LoanDto.mapLoanToDto(loan));
+        }
+        loanPage = new LoanPage(loans, (long) LoanFilter.DEFAULT_LIMIT);
+
+        installments = new ArrayList<>();
+        LocalDate dueDate = LocalDate.now().withDayOfMonth(1);
+        for (long id = 1; id <= 24; id++) {
+            installments.add(new InstallmentDto(id, 1L, new BigDecimal("625.00"), BigDecimal.ZERO,
+                    dueDate.plusMonths(id), null, false));
+        }
+
+        paymentResult = new PaymentResult(3, new BigDecimal("1874.37500"), false);
+    }
+
+    // the envelope alone, allocation per response with -prof gc
+    @Benchmark
+    public ApiResponse<PaymentResult> createEnvelope() {
+        return ApiResponse.success(paymentResult, PATH + "/pay");
+    }
+
+    @Benchmark
+    public LoanDto mapLoanToDto() {
+        return LoanDto.mapLoanToDto(loan);
+    }
+
+    @Benchmark
+    public byte[] serializeLoanPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ApiResponse.success(loanPage, PATH));
+    }
+
+    @Benchmark
+    public byte[] serializeInstallments() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ApiResponse.success(installments, PATH + "/1/installments"));
+    }
+
+    @Benchmark
+    public byte[] serializePaymentResult() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ApiResponse.success(paymentResult, PATH + "/pay"));
+    }
+}
@@ -0,0 +1,121 @@
+package tr.com.xbank.credit.dto;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import tr.com.xbank.credit.dto.request.LoanFilter;
+import tr.com.xbank.credit.dto.response.InstallmentDto;
+import tr.com.xbank.credit.dto.response.LoanDto;
+import tr.com.xbank.credit.dto.response.PaymentResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization CPU of the loan responses in JSON, CBOR and Smile, with mappers configured like the
+ * HTTP message converters, and of a gzipped loan page as the server compression would send it. The
+ * encoded sizes, plain and gzipped, are printed once per format at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final String PATH = "/credit/loans";
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<LoanDto>> loanPage;
+    private ApiResponse<List<InstallmentDto>> installments;
+    private ApiResponse<PaymentResult> paymentResult;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .factory(factory)
+                .build();
+
+        List<LoanDto> loans = new ArrayList<>();
+        LocalDate nextDueDate = LocalDate.now().withDayOfMonth(1).plusMonths(1);
+        for (long id = 1; id <= LoanFilter.DEFAULT_LIMIT; id++) {
+            loans.add(new LoanDto(id, 2L, new BigDecimal("12000.00"), new BigDecimal("0.25"), 24,
+                    LocalDateTime.now(), false, 24, new BigDecimal("15000.00"), nextDueDate));
+        }
+        loanPage = ApiResponse.success(loans, PATH + "/customer/2");
+
+        List<InstallmentDto> schedule = new ArrayList<>();
+        for (long id = 1; id <= 24; id++) {
+            schedule.add(new InstallmentDto(id, 1L, new BigDecimal("625.00"), BigDecimal.ZERO,
+                    nextDueDate.plusMonths(id - 1), null, false));
+        }
+        installments = ApiResponse.success(schedule, PATH + "/1/installments");
+
+        paymentResult = ApiResponse.success(new PaymentResult(3, new BigDecimal("1874.37500"), false), PATH + "/pay");
+
+        System.out.printf("%n%s bytes: loan page %d (gzip %d), installments %d (gzip %d), payment result %d%n",
+                format,
+                serializeLoanPage().length, gzipLoanPage().length,
+                serializeInstallments().length, gzip(serializeInstallments()).length,
+                serializePaymentResult().length);
+    }
+
+    @Benchmark
+    public byte[] serializeLoanPage() throws IOException {
+        return objectMapper.writeValueAsBytes(loanPage);
+    }
+
+    @Benchmark
+    public byte[] serializeInstallments() throws IOException {
+        return objectMapper.writeValueAsBytes(installments);
+    }
+
+    @Benchmark
+    public byte[] serializePaymentResult() throws IOException {
+        return objectMapper.writeValueAsBytes(paymentResult);
+    }
+
+    @Benchmark
+    public byte[] gzipLoanPage() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(loanPage));
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,165 @@
+package tr.com.xbank.credit.repository;
+
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.Loan;
+import tr.com.xbank.credit.entity.LoanInstallment;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Map backed fakes of the repositories, covering the methods {@code createLoan} and
+ * {@code payLoanInstallments} call so the service can be benchmarked without JPA or a database.
+ * Any other repository method throws {@link UnsupportedOperationException}. Not thread safe, one
+ * instance per benchmark thread.
+ */
+public class InMemoryRepositories {
+
+    private final Map<Long, Customer> customers = new HashMap<>();
+    private final Map<Long, BigDecimal> usedCreditLimits = new HashMap<>();
+    private final Map<Long, Loan> loans = new HashMap<>();
+    private final Map<Long, List<LoanInstallment>> installmentsByLoan = new HashMap<>();
+    private long nextId = 1;
+
+    private final CustomerRepository customerRepository = proxy(CustomerRepository.class, (proxy, method, args) ->
+            switch (method.getName()) {
+                case "findById" -> Optional.ofNullable(customers.get((Long) args[0]));
+                case "save" -> saveCustomer((Customer) args[0]);
+                default -> unsupported(CustomerRepository.class, method.getName());
+            });
+
+    private final CustomerCreditRepository customerCreditRepository = proxy(CustomerCreditRepository.class, (proxy, method, args) ->
+            switch (method.getName()) {
+                case "reserveCreditLimit" -> reserveCreditLimit((Long) args[0], (BigDecimal) args[1]);
+                case "releaseCreditLimit" -> releaseCreditLimit((Long) args[0], (BigDecimal) args[1]);
+                default -> unsupported(CustomerCreditRepository.class, method.getName());
+            });
+
+    private final LoanRepository loanRepository = proxy(LoanRepository.class, (proxy, method, args) ->
+            switch (method.getName()) {
+                case "findById" -> Optional.ofNullable(loans.get((Long) args[0]));
+                case "save" -> saveLoan((Loan) args[0]);
+                default -> unsupported(LoanRepository.class, method.getName());
+            });
+
+    private final LoanInstallmentRepository loanInstallmentRepository = proxy(LoanInstallmentRepository.class, (proxy, method, args) ->
+            switch (method.getName()) {
+                case "saveAll" -> saveInstallments((Iterable<?>) args[0]);
+                case "findByLoanId" -> new ArrayList<>(installmentsByLoan.getOrDefault((Long) args[0], List.of()));
+                case "findUnpaidInstallmentsByLoanIdAndMaxDueDate" -> findUnpaid((Long) args[0], (LocalDate) args[1]);
+                default -> unsupported(LoanInstallmentRepository.class, method.getName());
+            });
+
+    public CustomerRepository customerRepository() {
+        return customerRepository;
+    }
+
+    public CustomerCreditRepository customerCreditRepository() {
+        return customerCreditRepository;
+    }
+
+    public LoanRepository loanRepository() {
+        return loanRepository;
+    }
+
+    public LoanInstallmentRepository loanInstallmentRepository() {
+        return loanInstallmentRepository;
+    }
+
+    /**
+     * Drops every loan and installment and releases the credit they reserved, customers are kept.
+     */
+    public void clearLoans() {
+        loans.clear();
+        installmentsByLoan.clear();
+        usedCreditLimits.replaceAll((customerId, used) -> BigDecimal.ZERO);
+    }
+
+    private Customer saveCustomer(Customer customer) {
+        if (customer.getId() == null) {
+            customer.setId(nextId++);
+        }
+        customers.put(customer.getId(), customer);
+        // the credit account the services open alongside the customer
+        usedCreditLimits.putIfAbsent(customer.getId(), BigDecimal.ZERO);
+        return customer;
+    }
+
+    private int reserveCreditLimit(Long customerId, BigDecimal amount) {
+        Customer customer = customers.get(customerId);
+        if (customer == null || usedCreditLimits.get(customerId).add(amount).compareTo(customer.getCreditLimit()) > 0) {
+            return 0;
+        }
+        usedCreditLimits.merge(customerId, amount, BigDecimal::add);
+        return 1;
+    }
+
+    private int releaseCreditLimit(Long customerId, BigDecimal amount) {
+        if (!usedCreditLimits.containsKey(customerId)) {
+            return 0;
+        }
+        usedCreditLimits.merge(customerId, amount, BigDecimal::subtract);
+        return 1;
+    }
+
+    // mirrors @PrePersist of the entity on first save
+    private Loan saveLoan(Loan loan) {
+        if (loan.getId() == null) {
+            loan.setId(nextId++);
+            loan.setCreateDate(LocalDateTime.now());
+            loan.setPaid(false);
+        }
+        loans.put(loan.getId(), loan);
+        return loan;
+    }
+
+    private List<LoanInstallment> saveInstallments(Iterable<?> entities) {
+        List<LoanInstallment> saved = new ArrayList<>();
+        for (Object entity : entities) {
+            LoanInstallment installment = (LoanInstallment) entity;
+            if (installment.getId() == null) {
+                installment.setId(nextId++);
+                if (installment.getPaidAmount() == null) {
+                    installment.setPaidAmount(BigDecimal.ZERO);
+                }
+                installmentsByLoan.computeIfAbsent(installment.getLoan().getId(), id -> new ArrayList<>()).add(installment);
+            }
+            saved.add(installment);
+        }
+        return saved;
+    }
+
+    private List<LoanInstallment> findUnpaid(Long loanId, LocalDate maxDueDate) {
+        List<LoanInstallment> unpaid = new ArrayList<>();
+        for (LoanInstallment installment : installmentsByLoan.getOrDefault(loanId, List.of())) {
+            if (!installment.isPaid() && !installment.getDueDate().isAfter(maxDueDate)) {
+                unpaid.add(installment);
+            }
+        }
+        unpaid.sort(Comparator.comparing(LoanInstallment::getDueDate));
+        return unpaid;
+    }
+
+    private static Object unsupported(Class<?> repository, String method) {
+        throw new UnsupportedOperationException(repository.getSimpleName() + "." + method + " is not faked");
+    }
+
+    private static <T> T proxy(Class<T> repository, InvocationHandler handler) {
+        InvocationHandler withObjectMethods = (proxy, method, args) -> switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "InMemory" + repository.getSimpleName();
+            default -> handler.invoke(proxy, method, args);
+        };
+        return repository.cast(Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository}, withObjectMethods));
+    }
+}
@@ -0,0 +1,84 @@
+package tr.com.xbank.credit.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import tr.com.xbank.credit.CreditApplication;
+import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.CustomerCredit;
+import tr.com.xbank.credit.repository.CustomerCreditRepository;
+import tr.com.xbank.credit.repository.CustomerRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The customer reads of a request, the user lookup of authentication followed by loan creation, with
+ * the Hibernate second-level cache on and off. BCrypt and the credential cache are left out: either
+ * would hide the database reads being compared.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerCacheBenchmark {
+
+    @Param({"true", "false"})
+    boolean secondLevelCache;
+
+    ConfigurableApplicationContext context;
+    UserDetailsService userDetailsService;
+    LoanService loanService;
+    String username;
+    CreateLoanRequest request;
+
+    @Setup
+    public void start() {
+        context = new SpringApplicationBuilder(CreditApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:jmh-customer-cache",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+        userDetailsService = context.getBean(UserDetailsService.class);
+        loanService = context.getBean(LoanService.class);
+
+        Customer customer = context.getBean(CustomerRepository.class).save(LoanFixtures.customer());
+        context.getBean(CustomerCreditRepository.class).save(new CustomerCredit(customer.getId()));
+        username = customer.getUsername();
+        request = LoanFixtures.loanRequest(customer.getId(), 12);
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails authenticate() {
+        return userDetailsService.loadUserByUsername(username);
+    }
+
+    @Benchmark
+    public void authenticateAndCreateLoan(Blackhole blackhole) {
+        blackhole.consume(userDetailsService.loadUserByUsername(username));
+        blackhole.consume(loanService.createLoan(request));
+    }
+}
@@ -0,0 +1,93 @@
+package tr.com.xbank.credit.service;
+
+import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.Loan;
+import tr.com.xbank.credit.entity.LoanInstallment;
+import tr.com.xbank.credit.service.lock.PaymentLock;
+import tr.com.xbank.credit.util.MoneyMath;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Loans, schedules and payments shared by the service benchmarks, so the in-memory and H2 runs
+ * measure the same work.
+ */
+final class LoanFixtures {
+
+    static final int PAYMENT_INSTALLMENTS = 24;
+
+    // only the in-memory runs skip locking, the H2 runs use the configured lock
+    static final PaymentLock NO_LOCK = new PaymentLock() {
+        @Override
+        public void acquire(Long loanId) {
+        }
+
+        @Override
+        public void acquireAll(Collection<Long> loanIds) {
+        }
+    };
+
+    private LoanFixtures() {
+    }
+
+    static Customer customer() {
+        Customer customer = new Customer();
+        customer.setName("Benchmark");
+        customer.setSurname("Customer");
+        customer.setUsername("benchmark" + System.nanoTime());
+        customer.setPassword("not-used");
+        customer.setEmail(customer.getUsername() + "@example.com");
+        customer.setCreditLimit(new BigDecimal("1000000000000"));
+        return customer;
+    }
+
+    static CreateLoanRequest loanRequest(Long customerId, int numberOfInstallments) {
+        return new CreateLoanRequest(customerId, new BigDecimal("12000.00"), new BigDecimal("0.25"), numberOfInstallments);
+    }
+
+    /**
+     * Moves the schedule to start on the first of this month, so the first three installments are
+     * inside the payment window and one of them is overdue or due today.
+     */
+    static void scheduleFromThisMonth(List<LoanInstallment> installments) {
+        installments.sort(Comparator.comparing(LoanInstallment::getId));
+        LocalDate firstDueDate = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i < installments.size(); i++) {
+            installments.get(i).setDueDate(firstDueDate.plusMonths(i));
+        }
+    }
+
+    /**
+     * The amount paying exactly the first {@code count} installments today.
+     */
+    static BigDecimal paymentCovering(List<LoanInstallment> installments, int count) {
+        long today = LocalDate.now().toEpochDay();
+        BigDecimal payment = BigDecimal.ZERO;
+        for (LoanInstallment installment : installments.subList(0, count)) {
+            payment = payment.add(MoneyMath.adjustedAmount(installment.getAmount(),
+                    installment.getDueDate().toEpochDay() - today));
+        }
+        return payment;
+    }
+
+    /**
+     * Restores a schedule ordered by due date, and the balance its loan keeps, to nothing paid.
+     */
+    static void markUnpaid(Loan loan, List<LoanInstallment> installments) {
+        BigDecimal outstanding = BigDecimal.ZERO;
+        for (LoanInstallment installment : installments) {
+            installment.setPaid(false);
+            installment.setPaidAmount(BigDecimal.ZERO);
+            installment.setPaymentDate(null);
+            outstanding = outstanding.add(installment.getAmount());
+        }
+        loan.setUnpaidInstallmentCount(installments.size());
+        loan.setOutstandingAmount(outstanding);
+        loan.setNextDueDate(installments.get(0).getDueDate());
+    }
+}
@@ -0,0 +1,118 @@
+package tr.com.xbank.credit.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.dto.request.PayLoanRequest;
+import tr.com.xbank.credit.dto.response.LoanDto;
+import tr.com.xbank.credit.dto.response.PaymentResult;
+import tr.com.xbank.credit.entity.Loan;
+import tr.com.xbank.credit.entity.LoanInstallment;
+import tr.com.xbank.credit.repository.InMemoryRepositories;
+import tr.com.xbank.credit.service.cache.InstallmentScheduleCache;
+import tr.com.xbank.credit.service.impl.LoanServiceImpl;
+import tr.com.xbank.credit.service.metrics.LoanMetrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LoanServiceImpl} on {@link InMemoryRepositories}: the CPU and allocation cost of the service
+ * itself, without JPA, transactions or locking. {@link LoanServiceH2Benchmark} runs the same
+ * operations against H2. The per invocation fixtures only reset a handful of fields, which is
+ * negligible next to the microseconds an operation takes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoanServiceBenchmark {
+
+    @State(Scope.Thread)
+    public static class CreateLoan {
+
+        @Param({"6", "9", "12", "24"})
+        int numberOfInstallments;
+
+        InMemoryRepositories repositories;
+        LoanService loanService;
+        CreateLoanRequest request;
+
+        @Setup
+        public void setUp() {
+            repositories = new InMemoryRepositories();
+            loanService = loanService(repositories);
+            Long customerId = repositories.customerRepository().save(LoanFixtures.customer()).getId();
+            request = LoanFixtures.loanRequest(customerId, numberOfInstallments);
+        }
+
+        // keeps the fake store from growing across invocations
+        @TearDown(Level.Invocation)
+        public void clearLoans() {
+            repositories.clearLoans();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PayLoan {
+
+        @Param({"1", "2", "3"})
+        int installmentsPaid;
+
+        LoanService loanService;
+        Loan loan;
+        List<LoanInstallment> installments;
+        PayLoanRequest request;
+
+        @Setup
+        public void setUp() {
+            InMemoryRepositories repositories = new InMemoryRepositories();
+            loanService = loanService(repositories);
+            Long customerId = repositories.customerRepository().save(LoanFixtures.customer()).getId();
+            Long loanId = loanService.createLoan(
+                    LoanFixtures.loanRequest(customerId, LoanFixtures.PAYMENT_INSTALLMENTS)).id();
+
+            loan = repositories.loanRepository().findById(loanId).orElseThrow();
+            installments = repositories.loanInstallmentRepository().findByLoanId(loanId);
+            LoanFixtures.scheduleFromThisMonth(installments);
+            request = new PayLoanRequest(loanId, LoanFixtures.paymentCovering(installments, installmentsPaid));
+        }
+
+        @Setup(Level.Invocation)
+        public void markUnpaid() {
+            LoanFixtures.markUnpaid(loan, installments);
+        }
+    }
+
+    @Benchmark
+    public LoanDto createLoan(CreateLoan state) {
+        return state.loanService.createLoan(state.request);
+    }
+
+    @Benchmark
+    public PaymentResult payLoanInstallments(PayLoan state) {
+        return state.loanService.payLoanInstallments(state.request);
+    }
+
+    private static LoanService loanService(InMemoryRepositories repositories) {
+        return new LoanServiceImpl(repositories.customerRepository(), repositories.customerCreditRepository(),
+                repositories.loanRepository(), repositories.loanInstallmentRepository(), LoanFixtures.NO_LOCK,
+                new LoanMetrics(new SimpleMeterRegistry()), new InstallmentScheduleCache(new SimpleMeterRegistry(),
+                Optional.empty(), true, 1000, Duration.ofMinutes(10)));
+    }
+}
@@ -0,0 +1,134 @@
+package tr.com.xbank.credit.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tr.com.xbank.credit.CreditApplication;
+import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.dto.request.PayLoanRequest;
+import tr.com.xbank.credit.dto.response.LoanDto;
+import tr.com.xbank.credit.dto.response.PaymentResult;
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.CustomerCredit;
+import tr.com.xbank.credit.entity.Loan;
+import tr.com.xbank.credit.entity.LoanInstallment;
+import tr.com.xbank.credit.repository.CustomerCreditRepository;
+import tr.com.xbank.credit.repository.CustomerRepository;
+import tr.com.xbank.credit.repository.LoanInstallmentRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The operations of {@link LoanServiceBenchmark} through the Spring context against in-memory H2,
+ * including transactions, Hibernate flushes and the payment lock. Hibernate takes far longer than the
+ * service alone to reach steady state, hence the long warmup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LoanServiceH2Benchmark {
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        ConfigurableApplicationContext context;
+        LoanService loanService;
+        Long customerId;
+
+        @Setup
+        public void start() {
+            // arguments rather than default properties, so they override application.yml
+            context = new SpringApplicationBuilder(CreditApplication.class).run(
+                    "--server.port=0",
+                    "--spring.datasource.url=jdbc:h2:mem:jmh",
+                    "--spring.jpa.show-sql=false",
+                    "--spring.main.banner-mode=off",
+                    "--logging.level.root=WARN");
+            loanService = context.getBean(LoanService.class);
+            Customer customer = context.getBean(CustomerRepository.class).save(LoanFixtures.customer());
+            context.getBean(CustomerCreditRepository.class).save(new CustomerCredit(customer.getId()));
+            customerId = customer.getId();
+        }
+
+        @TearDown
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CreateLoan {
+
+        @Param({"6", "9", "12", "24"})
+        int numberOfInstallments;
+
+        CreateLoanRequest request;
+
+        @Setup
+        public void setUp(Application application) {
+            request = LoanFixtures.loanRequest(application.customerId, numberOfInstallments);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PayLoan {
+
+        @Param({"1", "2", "3"})
+        int installmentsPaid;
+
+        JdbcTemplate jdbcTemplate;
+        PayLoanRequest request;
+        Loan unpaidLoan = new Loan();
+
+        @Setup
+        public void setUp(Application application) {
+            jdbcTemplate = application.context.getBean(JdbcTemplate.class);
+            LoanInstallmentRepository loanInstallmentRepository =
+                    application.context.getBean(LoanInstallmentRepository.class);
+
+            Long loanId = application.loanService.createLoan(
+                    LoanFixtures.loanRequest(application.customerId, LoanFixtures.PAYMENT_INSTALLMENTS)).id();
+
+            List<LoanInstallment> installments = loanInstallmentRepository.findByLoanId(loanId);
+            LoanFixtures.scheduleFromThisMonth(installments);
+            loanInstallmentRepository.saveAll(installments);
+            LoanFixtures.markUnpaid(unpaidLoan, installments);
+            request = new PayLoanRequest(loanId, LoanFixtures.paymentCovering(installments, installmentsPaid));
+        }
+
+        @Setup(Level.Invocation)
+        public void markUnpaid() {
+            jdbcTemplate.update("UPDATE loan_installments SET is_paid = FALSE, paid_amount = 0, payment_date = NULL " +
+                    "WHERE loan_id = ?", request.loanId());
+            jdbcTemplate.update("UPDATE loans SET unpaid_installment_count = ?, outstanding_amount = ?, next_due_date = ? " +
+                    "WHERE id = ?", unpaidLoan.getUnpaidInstallmentCount(), unpaidLoan.getOutstandingAmount(),
+                    unpaidLoan.getNextDueDate(), request.loanId());
+        }
+    }
+
+    @Benchmark
+    public LoanDto createLoan(CreateLoan state, Application application) {
+        return application.loanService.createLoan(state.request);
+    }
+
+    @Benchmark
+    public PaymentResult payLoanInstallments(PayLoan state, Application application) {
+        return application.loanService.payLoanInstallments(state.request);
+    }
+}
@@ -0,0 +1,106 @@
+package tr.com.xbank.credit.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Installment math before and after {@link MoneyMath}: paying a 24 installment schedule, adjusting a
+ * single installment and computing an installment amount. Run with {@code -prof gc} to compare allocations per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyMathBenchmark {
+
+    private static final int INSTALLMENTS = 24;
+
+    private final BigDecimal[] amounts = new BigDecimal[INSTALLMENTS];
+    private final LocalDate[] dueDates = new LocalDate[INSTALLMENTS];
+    private LocalDate lateBy10Days;
+    private BigDecimal payment;
+    private BigDecimal principal;
+    private BigDecimal interestRate;
+
+    @Setup
+    public void setUp() {
+        principal = new BigDecimal("12000.00");
+        interestRate = new BigDecimal("0.25");
+
+        BigDecimal installmentAmount = MoneyMath.installmentAmount(principal, interestRate, INSTALLMENTS);
+        LocalDate firstDueDate = LocalDate.now().withDayOfMonth(1).minusMonths(2);
+        for (int i = 0; i < INSTALLMENTS; i++) {
+            amounts[i] = installmentAmount;
+            dueDates[i] = firstDueDate.plusMonths(i);
+        }
+        lateBy10Days = dueDates[0].plusDays(10);
+        payment = new BigDecimal("1000000.00");
+    }
+
+    @Benchmark
+    public void paySchedule_BigDecimal(Blackhole blackhole) {
+        BigDecimal remainingAmount = payment;
+        for (int i = 0; i < INSTALLMENTS; i++) {
+            BigDecimal adjustedAmount = MoneyMathReference.calculateAdjustedAmount(amounts[i], dueDates[i], LocalDate.now());
+            if (remainingAmount.compareTo(adjustedAmount) < 0) {
+                break;
+            }
+            blackhole.consume(adjustedAmount);
+            remainingAmount = remainingAmount.subtract(adjustedAmount);
+        }
+        blackhole.consume(remainingAmount);
+    }
+
+    @Benchmark
+    public void paySchedule_MoneyMath(Blackhole blackhole) {
+        long today = LocalDate.now().toEpochDay();
+        long remainingUnits = MoneyMath.toUnitsFloor(payment);
+        for (int i = 0; i < INSTALLMENTS; i++) {
+            long daysUntilDue = dueDates[i].toEpochDay() - today;
+            long adjustedUnits = MoneyMath.adjustedUnits(MoneyMath.toUnits(amounts[i]), daysUntilDue);
+            if (remainingUnits < adjustedUnits) {
+                break;
+            }
+            blackhole.consume(MoneyMath.toAdjustedAmount(amounts[i], adjustedUnits, daysUntilDue));
+            remainingUnits -= adjustedUnits;
+        }
+        blackhole.consume(remainingUnits);
+    }
+
+    // one installment paid ten days late
+    @Benchmark
+    public BigDecimal adjustedAmount_BigDecimal() {
+        return MoneyMathReference.calculateAdjustedAmount(amounts[0], dueDates[0], lateBy10Days);
+    }
+
+    @Benchmark
+    public BigDecimal adjustedAmount_MoneyMath() {
+        return MoneyMath.adjustedAmount(amounts[0], -10);
+    }
+
+    @Benchmark
+    public BigDecimal installmentAmount_BigDecimal() {
+        return MoneyMathReference.calculateInstallmentAmount(
+                MoneyMathReference.calculateTotalLoanAmount(principal, interestRate), INSTALLMENTS);
+    }
+
+    @Benchmark
+    public BigDecimal installmentAmount_MoneyMath() {
+        return MoneyMath.installmentAmount(principal, interestRate, INSTALLMENTS);
+    }
+}
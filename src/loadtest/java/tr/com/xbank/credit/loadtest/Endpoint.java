@@ -0,0 +1,83 @@
+package tr.com.xbank.credit.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The endpoints in the workload mix and how a request to each is built from the discovered data.
+ */
+enum Endpoint {
+
+    CREATE_LOAN("createLoan") {
+        @Override
+        HttpRequest.Builder request(URI baseUrl, Fixtures fixtures, SplittableRandom random) {
+            return post(baseUrl, "/loans/create", """
+                    {"customerId":%d,"amount":1000,"interestRate":0.2,"numberOfInstallments":12}"""
+                    .formatted(fixtures.customerId(random)));
+        }
+    },
+
+    // one installment of the larger seeded loans, fewer of the smaller ones
+    PAY_LOAN("payLoan") {
+        @Override
+        HttpRequest.Builder request(URI baseUrl, Fixtures fixtures, SplittableRandom random) {
+            return post(baseUrl, "/loans/pay", """
+                    {"loanId":%d,"amount":2500}""".formatted(fixtures.loanId(random)));
+        }
+    },
+
+    CUSTOMER_LOANS("customerLoans") {
+        @Override
+        HttpRequest.Builder request(URI baseUrl, Fixtures fixtures, SplittableRandom random) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/loans/customer/" + fixtures.customerId(random)));
+        }
+    },
+
+    LOAN_INSTALLMENTS("loanInstallments") {
+        @Override
+        HttpRequest.Builder request(URI baseUrl, Fixtures fixtures, SplittableRandom random) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/loans/" + fixtures.loanId(random) + "/installments"));
+        }
+    };
+
+    private final String id;
+
+    Endpoint(String id) {
+        this.id = id;
+    }
+
+    String id() {
+        return id;
+    }
+
+    abstract HttpRequest.Builder request(URI baseUrl, Fixtures fixtures, SplittableRandom random);
+
+    static Endpoint of(String id) {
+        return Arrays.stream(values())
+                .filter(endpoint -> endpoint.id.equals(id))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown endpoint " + id));
+    }
+
+    private static HttpRequest.Builder post(URI baseUrl, String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    /**
+     * Customer and loan ids found in the seeded data.
+     */
+    record Fixtures(long[] customerIds, long[] loanIds) {
+
+        long customerId(SplittableRandom random) {
+            return customerIds[random.nextInt(customerIds.length)];
+        }
+
+        long loanId(SplittableRandom random) {
+            return loanIds[random.nextInt(loanIds.length)];
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package tr.com.xbank.credit.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and response counts of one endpoint. Latency is measured from the time a
+ * request was scheduled to be sent, not when it was sent, so a generator falling behind shows up
+ * in the percentiles instead of hiding it (coordinated omission).
+ */
+class EndpointStats {
+
+    static final int IO_ERROR = -1;
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Histogram latencyMicros = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    void record(int status, long latencyNanos) {
+        latencyMicros.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    void drop() {
+        dropped.increment();
+    }
+
+    Report report(double seconds) {
+        long requests = latencyMicros.getTotalCount();
+        Map<String, Long> statusCounts = new TreeMap<>();
+        long errors = 0;
+        for (Map.Entry<Integer, LongAdder> status : statuses.entrySet()) {
+            long count = status.getValue().sum();
+            statusCounts.put(status.getKey() == IO_ERROR ? "io-error" : String.valueOf(status.getKey()), count);
+            if (status.getKey() < 200 || status.getKey() >= 300) {
+                errors += count;
+            }
+        }
+
+        return new Report(requests, requests / seconds, errors, dropped.sum(), statusCounts, new Latency(
+                millis(latencyMicros.getValueAtPercentile(50)),
+                millis(latencyMicros.getValueAtPercentile(90)),
+                millis(latencyMicros.getValueAtPercentile(99)),
+                millis(latencyMicros.getValueAtPercentile(99.9)),
+                millis(latencyMicros.getMaxValue()),
+                latencyMicros.getMean() / 1000));
+    }
+
+    /**
+     * Writes the full percentile distribution in milliseconds, the format HdrHistogram's plotter reads.
+     */
+    void writeDistribution(Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            latencyMicros.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    record Report(long requests, double throughput, long errors, long dropped,
+                  Map<String, Long> statuses, Latency latencyMillis) {}
+
+    record Latency(double p50, double p90, double p99, double p999, double max, double mean) {}
+}
@@ -0,0 +1,220 @@
+package tr.com.xbank.credit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open model load generator for a running instance: requests of the configured endpoint mix are
+ * sent at a fixed arrival rate whatever the response times, with basic authentication on every
+ * request, and latency is recorded per endpoint in HdrHistograms. Customers and loans are discovered
+ * through the API first, so the instance should run with the {@code loadtest} profile, which seeds
+ * them. Writes a JSON report plus one {@code .hgrm} percentile distribution per endpoint.
+ *
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.profiles=loadtest
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--rate 200 --duration 120"
+ * </pre>
+ */
+public class LoadTest {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int DISCOVERY_PAGE_SIZE = 500;
+    private static final int DISCOVERY_MAX_MISSES = 50;
+
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private final String authorization;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    LoadTest(LoadTestConfig config) {
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.authorization = "Basic " + Base64.getEncoder().encodeToString(
+                (config.username() + ":" + config.password()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        new LoadTest(config).run();
+    }
+
+    void run() throws Exception {
+        Endpoint.Fixtures fixtures = discover();
+        System.out.printf("Discovered %d customers and %d loans at %s%n",
+                fixtures.customerIds().length, fixtures.loanIds().length, config.baseUrl());
+
+        Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        config.mix().keySet().forEach(endpoint -> stats.put(endpoint, new EndpointStats()));
+
+        Instant startedAt = Instant.now();
+        generate(fixtures, stats);
+
+        writeReport(startedAt, stats);
+    }
+
+    // fixed arrival rate: request i is due at start + i / rate, late dispatches are not skipped but measured from their due time
+    private void generate(Endpoint.Fixtures fixtures, Map<Endpoint, EndpointStats> stats) throws InterruptedException {
+        Endpoint[] schedule = weightedSchedule();
+        SplittableRandom random = new SplittableRandom(config.seed());
+        Semaphore inFlight = new Semaphore(config.maxInFlight());
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+
+        System.out.printf("Sending %d requests/s for %ds after %ds of warmup%n",
+                config.rate(), config.duration().toSeconds(), config.warmup().toSeconds());
+
+        for (long i = 0; ; i++) {
+            long due = start + i * intervalNanos;
+            if (due >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Endpoint endpoint = schedule[random.nextInt(schedule.length)];
+            EndpointStats endpointStats = due >= measureFrom ? stats.get(endpoint) : null;
+
+            if (!inFlight.tryAcquire()) {
+                if (endpointStats != null) {
+                    endpointStats.drop();
+                }
+                continue;
+            }
+
+            HttpRequest request = endpoint.request(config.baseUrl(), fixtures, random)
+                    .header("Authorization", authorization)
+                    .timeout(REQUEST_TIMEOUT)
+                    .build();
+
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (endpointStats != null) {
+                    endpointStats.record(error == null ? response.statusCode() : EndpointStats.IO_ERROR, System.nanoTime() - due);
+                }
+                inFlight.release();
+            });
+        }
+
+        if (!inFlight.tryAcquire(config.maxInFlight(), REQUEST_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+            System.err.println("Requests still outstanding after " + REQUEST_TIMEOUT.toSeconds() + "s, reporting without them");
+        }
+    }
+
+    // one slot per unit of weight, so a uniform pick follows the mix
+    private Endpoint[] weightedSchedule() {
+        List<Endpoint> slots = new ArrayList<>();
+        config.mix().forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(endpoint);
+            }
+        });
+        return slots.toArray(Endpoint[]::new);
+    }
+
+    // walks customer ids upwards, keeping those with loans, until enough are found or ids run out
+    private Endpoint.Fixtures discover() throws IOException, InterruptedException {
+        List<Long> customerIds = new ArrayList<>();
+        List<Long> loanIds = new ArrayList<>();
+        int misses = 0;
+
+        for (long customerId = 1; customerIds.size() < config.customers() && misses < DISCOVERY_MAX_MISSES; customerId++) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                            URI.create(config.baseUrl() + "/loans/customer/" + customerId + "?limit=" + DISCOVERY_PAGE_SIZE))
+                    .header("Authorization", authorization)
+                    .timeout(REQUEST_TIMEOUT)
+                    .build(), HttpResponse.BodyHandlers.ofString());
+
+            if (response.statusCode() == 401 || response.statusCode() == 403) {
+                throw new IllegalStateException("Discovery was refused with " + response.statusCode() + ", --user needs the ADMIN role");
+            }
+            if (response.statusCode() != 200) {
+                misses++;
+                continue;
+            }
+
+            misses = 0;
+            customerIds.add(customerId);
+            for (JsonNode loan : objectMapper.readTree(response.body()).path("data")) {
+                loanIds.add(loan.path("id").asLong());
+            }
+        }
+
+        if (customerIds.isEmpty()) {
+            throw new IllegalStateException("No customers with loans found, start the application with the loadtest profile");
+        }
+        return new Endpoint.Fixtures(
+                customerIds.stream().mapToLong(Long::longValue).toArray(),
+                loanIds.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    private void writeReport(Instant startedAt, Map<Endpoint, EndpointStats> stats) throws IOException {
+        double seconds = config.duration().toNanos() / 1e9;
+        Map<String, EndpointStats.Report> endpoints = new LinkedHashMap<>();
+        stats.forEach((endpoint, endpointStats) -> endpoints.put(endpoint.id(), endpointStats.report(seconds)));
+
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        config.mix().forEach((endpoint, weight) -> mix.put(endpoint.id(), weight));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("baseUrl", config.baseUrl().toString());
+        report.put("startedAt", startedAt.toString());
+        report.put("rate", config.rate());
+        report.put("warmupSeconds", config.warmup().toSeconds());
+        report.put("durationSeconds", config.duration().toSeconds());
+        report.put("mix", mix);
+        report.put("endpoints", endpoints);
+
+        Path file = config.report().toAbsolutePath();
+        Files.createDirectories(file.getParent());
+        objectMapper.writeValue(file.toFile(), report);
+        for (Map.Entry<Endpoint, EndpointStats> endpoint : stats.entrySet()) {
+            endpoint.getValue().writeDistribution(file.resolveSibling(endpoint.getKey().id() + ".hgrm"));
+        }
+
+        System.out.printf("%n%-18s %9s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "dropped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        endpoints.forEach((id, r) -> System.out.printf("%-18s %9d %9.1f %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                id, r.requests(), r.throughput(), r.errors(), r.dropped(), r.latencyMillis().p50(), r.latencyMillis().p90(),
+                r.latencyMillis().p99(), r.latencyMillis().p999(), r.latencyMillis().max()));
+        System.out.println("\nReport written to " + file);
+    }
+}
@@ -0,0 +1,95 @@
+package tr.com.xbank.credit.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options of {@link LoadTest}, each given as {@code --name value}.
+ */
+record LoadTestConfig(
+        URI baseUrl,
+        String username,
+        String password,
+        int rate,                   // requests per second, sent at a fixed rate whatever the response times
+        Duration warmup,            // sent but not recorded
+        Duration duration,
+        Map<Endpoint, Integer> mix, // relative weights
+        int customers,              // upper bound of customers discovered before the run
+        int maxInFlight,            // requests beyond this are dropped and counted, not queued
+        Path report,
+        long seed
+) {
+
+    static final String USAGE = """
+            Options (all optional):
+              --url            base URL of the application         (http://localhost:8080/credit)
+              --user           user:password sent as basic auth    (admin:admin123)
+              --rate           requests per second                 (100)
+              --warmup         warmup in seconds, not recorded     (10)
+              --duration       measured run in seconds             (60)
+              --mix            endpoint weights                    (createLoan=1,payLoan=2,customerLoans=4,loanInstallments=3)
+              --customers      customers to discover               (1000)
+              --max-in-flight  outstanding request limit           (1000)
+              --report         JSON report, .hgrm files beside it  (target/loadtest/report.json)
+              --seed           random seed of the workload         (42)
+            """;
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 == args.length) {
+                throw new IllegalArgumentException("Expected --name value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+
+        String[] user = options.getOrDefault("user", "admin:admin123").split(":", 2);
+        if (user.length != 2) {
+            throw new IllegalArgumentException("--user must be user:password");
+        }
+
+        return new LoadTestConfig(
+                URI.create(options.getOrDefault("url", "http://localhost:8080/credit").replaceAll("/+$", "")),
+                user[0],
+                user[1],
+                positive(options, "rate", 100),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10"))),
+                Duration.ofSeconds(positive(options, "duration", 60)),
+                parseMix(options.getOrDefault("mix", "createLoan=1,payLoan=2,customerLoans=4,loanInstallments=3")),
+                positive(options, "customers", 1000),
+                positive(options, "max-in-flight", 1000),
+                Path.of(options.getOrDefault("report", "target/loadtest/report.json")),
+                Long.parseLong(options.getOrDefault("seed", "42")));
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.split("=", 2);
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("--mix entries must be endpoint=weight, got " + entry);
+            }
+            int value = Integer.parseInt(weight[1].trim());
+            if (value < 0) {
+                throw new IllegalArgumentException("--mix weights must not be negative");
+            }
+            weights.put(Endpoint.of(weight[0].trim()), value);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("--mix needs at least one positive weight");
+        }
+        return weights;
+    }
+
+    private static int positive(Map<String, String> options, String name, int defaultValue) {
+        int value = Integer.parseInt(options.getOrDefault(name, String.valueOf(defaultValue)));
+        if (value <= 0) {
+            throw new IllegalArgumentException("--" + name + " must be positive");
+        }
+        return value;
+    }
+}
@@ -2,12 +2,18 @@ package tr.com.xbank.credit.config;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import tr.com.xbank.credit.dto.request.BulkLoanRecord;
+import tr.com.xbank.credit.dto.request.CreateLoanRequest;
 import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.CustomerCredit;
+import tr.com.xbank.credit.repository.CustomerCreditRepository;
 import tr.com.xbank.credit.repository.CustomerRepository;
+import tr.com.xbank.credit.service.LoanService;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -18,11 +24,18 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DataInitializer {
 
+    private static final String LOAD_TEST_PASSWORD = "loadtest123";
+    private static final int LOAD_TEST_BATCH_SIZE = 500;
+    private static final int[] LOAD_TEST_INSTALLMENTS = {6, 9, 12, 24};
+
     private final CustomerRepository customerRepository;
+    private final CustomerCreditRepository customerCreditRepository;
     private final PasswordEncoder passwordEncoder;
+    private final LoanService loanService;
 
     @Bean
-    public CommandLineRunner initializeData() {
+    public CommandLineRunner initializeData(@Value("${app.data.load-test.customers:0}") int loadTestCustomers,
+                                            @Value("${app.data.load-test.loans-per-customer:0}") int loansPerCustomer) {
         return args -> {
             log.info("Starting data initialization...");
 
@@ -36,7 +49,6 @@ public class DataInitializer {
             adminUser.setPassword(passwordEncoder.encode("admin123"));
             adminUser.setEmail("admin@example.com");
             adminUser.setCreditLimit(BigDecimal.valueOf(1000000));
-            adminUser.setUsedCreditLimit(BigDecimal.ZERO);
             customers.add(adminUser);
 
             // Create regular customers
@@ -60,6 +72,7 @@ public class DataInitializer {
             ));
 
             customerRepository.saveAll(customers);
+            openCreditAccounts(customers);
 
             log.info("Data initialization completed. Created {} customers", customers.size());
 
@@ -83,9 +96,62 @@ public class DataInitializer {
             log.info("Username: mcetin");
             log.info("Password: pass123");
             log.info("----------------------------------------");
+
+            if (loadTestCustomers > 0) {
+                seedLoadTestData(loadTestCustomers, loansPerCustomer);
+            }
         };
     }
 
+    // customers loadtest1..N sharing one password hash, each with loansPerCustomer loans created through the bulk path
+    private void seedLoadTestData(int customerCount, int loansPerCustomer) {
+        log.info("Seeding {} load test customers with {} loans each...", customerCount, loansPerCustomer);
+
+        String passwordHash = passwordEncoder.encode(LOAD_TEST_PASSWORD);
+        List<Long> customerIds = new ArrayList<>(customerCount);
+
+        for (int from = 1; from <= customerCount; from += LOAD_TEST_BATCH_SIZE) {
+            List<Customer> batch = new ArrayList<>();
+            for (int i = from; i < from + LOAD_TEST_BATCH_SIZE && i <= customerCount; i++) {
+                Customer customer = new Customer();
+                customer.setName("Load");
+                customer.setSurname("Test " + i);
+                customer.setUsername("loadtest" + i);
+                customer.setPassword(passwordHash);
+                customer.setEmail("loadtest" + i + "@example.com");
+                customer.setCreditLimit(BigDecimal.valueOf(100_000_000));
+                batch.add(customer);
+            }
+            openCreditAccounts(customerRepository.saveAll(batch)).forEach(customer -> customerIds.add(customer.getId()));
+        }
+
+        List<BulkLoanRecord> records = new ArrayList<>();
+        long loans = 0;
+        for (Long customerId : customerIds) {
+            for (int i = 0; i < loansPerCustomer; i++) {
+                int numberOfInstallments = LOAD_TEST_INSTALLMENTS[(int) (loans % LOAD_TEST_INSTALLMENTS.length)];
+                records.add(new BulkLoanRecord(++loans, new CreateLoanRequest(
+                        customerId, BigDecimal.valueOf(12000), BigDecimal.valueOf(0.2), numberOfInstallments)));
+
+                if (records.size() == LOAD_TEST_BATCH_SIZE) {
+                    loanService.createLoans(records);
+                    records = new ArrayList<>();
+                }
+            }
+        }
+        if (!records.isEmpty()) {
+            loanService.createLoans(records);
+        }
+
+        log.info("Load test data initialization completed. Customers {}..{} (username loadtest<n>, password {}), {} loans",
+                customerIds.get(0), customerIds.get(customerIds.size() - 1), LOAD_TEST_PASSWORD, loans);
+    }
+
+    private List<Customer> openCreditAccounts(List<Customer> customers) {
+        customerCreditRepository.saveAll(customers.stream().map(Customer::getId).map(CustomerCredit::new).toList());
+        return customers;
+    }
+
     private Customer createCustomer(String name, String surname, String username,
                                     String password, String email, double creditLimit) {
         Customer customer = new Customer();
@@ -95,7 +161,6 @@ public class DataInitializer {
         customer.setPassword(passwordEncoder.encode(password));
         customer.setEmail(email);
         customer.setCreditLimit(BigDecimal.valueOf(creditLimit));
-        customer.setUsedCreditLimit(BigDecimal.ZERO);
         return customer;
     }
 }
@@ -0,0 +1,122 @@
+package tr.com.xbank.credit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tr.com.xbank.credit.dto.ApiResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the requests in progress to {@code app.web.bulkhead.max-concurrent}. On virtual threads Tomcat
+ * no longer caps concurrency with its thread pool, so without it every request that arrives starts and
+ * queues on the connection pool, and on BCrypt before that. A request beyond the limit waits up to
+ * {@code app.web.bulkhead.max-wait} for a permit, with at most {@code app.web.bulkhead.max-waiting} of them
+ * waiting; the others are answered 503 at once. Runs ahead of the security filters and leaves the
+ * actuator endpoints alone. The streamed bulk endpoints release their permit once streaming starts,
+ * their fixed worker pools bound them instead.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+@ConditionalOnExpression("${app.web.bulkhead.max-concurrent:0} > 0")
+public class RequestBulkhead extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final int maxWaiting;
+    private final long maxWaitNanos;
+    private final Counter rejected;
+    private final ObjectMapper objectMapper;
+
+    public RequestBulkhead(ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.web.bulkhead.max-concurrent}") int maxConcurrent,
+                           @Value("${app.web.bulkhead.max-waiting:1000}") int maxWaiting,
+                           @Value("${app.web.bulkhead.max-wait:2s}") Duration maxWait) {
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxWaiting = maxWaiting;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.rejected = Counter.builder("credit.http.bulkhead.rejected")
+                .description("Requests answered 503 because the bulkhead was full")
+                .register(meterRegistry);
+        Gauge.builder("credit.http.bulkhead.waiting", waiting, AtomicInteger::get)
+                .description("Requests waiting for a bulkhead permit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getServletPath().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (!acquire()) {
+            reject(request, response);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean acquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        rejected.increment();
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        ApiResponse<?> apiResponse = ApiResponse.error(
+                List.of("Too many requests in progress, retry later"),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service unavailable",
+                request.getRequestURI()
+        );
+
+        response.getWriter().write(objectMapper.writeValueAsString(apiResponse));
+    }
+}
@@ -0,0 +1,24 @@
+package tr.com.xbank.credit.config;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Threads of the worker pools of batch jobs: virtual when {@code spring.threads.virtual.enabled} is set,
+ * named platform threads otherwise. The pools keep their fixed size either way, since it bounds the
+ * connections a job takes from the pool.
+ */
+public final class WorkerThreads {
+
+    public static final String VIRTUAL_THREADS_ENABLED = "${spring.threads.virtual.enabled:false}";
+
+    private WorkerThreads() {
+    }
+
+    public static ThreadFactory factory(String namePrefix, boolean virtual) {
+        return virtual
+                ? Thread.ofVirtual().name(namePrefix, 1).factory()
+                : new CustomizableThreadFactory(namePrefix);
+    }
+}
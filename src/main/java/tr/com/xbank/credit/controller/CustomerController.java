@@ -9,7 +9,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import tr.com.xbank.credit.dto.ApiResponse;
 import tr.com.xbank.credit.dto.request.CustomerRegistrationRequest;
-import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.dto.request.LoginRequest;
+import tr.com.xbank.credit.dto.response.CustomerDto;
+import tr.com.xbank.credit.dto.response.TokenResponse;
 import tr.com.xbank.credit.service.CustomerService;
 
 import java.net.URI;
@@ -23,14 +25,22 @@ public class CustomerController {
     private final CustomerService customerService;
 
     @PostMapping("/register")
-    public ResponseEntity<ApiResponse<Customer>> registerCustomer(
+    public ResponseEntity<ApiResponse<CustomerDto>> registerCustomer(
             @Valid @RequestBody CustomerRegistrationRequest request) throws URISyntaxException {
 
-        Customer customer = customerService.registerCustomer(request);
+        CustomerDto customer = customerService.registerCustomer(request);
 
-        URI location = new URI("/credit/customers/register/" + customer.getId());
+        URI location = new URI("/credit/customers/register/" + customer.id());
 
         return ResponseEntity.created(location)
                 .body(ApiResponse.success(customer, "/credit/customers/register/"));
     }
+
+    @PostMapping("/login")
+    public ResponseEntity<ApiResponse<TokenResponse>> login(@Valid @RequestBody LoginRequest request) {
+
+        TokenResponse token = customerService.login(request);
+
+        return ResponseEntity.ok(ApiResponse.success(token, "/credit/customers/login"));
+    }
 }
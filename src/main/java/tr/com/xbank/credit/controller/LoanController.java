@@ -1,19 +1,32 @@
 package tr.com.xbank.credit.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import tr.com.xbank.credit.dto.ApiResponse;
 import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.dto.request.LoanFilter;
 import tr.com.xbank.credit.dto.request.PayLoanRequest;
+import tr.com.xbank.credit.dto.response.DelinquencyReport;
 import tr.com.xbank.credit.dto.response.InstallmentDto;
 import tr.com.xbank.credit.dto.response.LoanDto;
+import tr.com.xbank.credit.dto.response.LoanPage;
 import tr.com.xbank.credit.dto.response.PaymentResult;
+import tr.com.xbank.credit.dto.response.PayoffQuote;
+import tr.com.xbank.credit.exception.ResourceNotFoundException;
 import tr.com.xbank.credit.security.UserPrincipal;
+import tr.com.xbank.credit.service.BulkLoanService;
+import tr.com.xbank.credit.service.BulkPaymentService;
 import tr.com.xbank.credit.service.LoanService;
+import tr.com.xbank.credit.service.LoanStreamService;
+import tr.com.xbank.credit.service.delinquency.DelinquencyScanner;
 
 import java.util.List;
 
@@ -22,7 +35,13 @@ import java.util.List;
 @RequiredArgsConstructor
 public class LoanController {
 
+    static final String NEXT_AFTER_HEADER = "X-Next-After";
+
     private final LoanService loanService;
+    private final LoanStreamService loanStreamService;
+    private final BulkLoanService bulkLoanService;
+    private final BulkPaymentService bulkPaymentService;
+    private final DelinquencyScanner delinquencyScanner;
 
     @PostMapping("/create")
     @PreAuthorize("hasRole('ADMIN') or #request.customerId == #userPrincipal.id")
@@ -35,19 +54,55 @@ public class LoanController {
         return ResponseEntity.ok(ApiResponse.success(loan, "/credit/loans/create"));
     }
 
+    @PostMapping(value = "/bulk",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> createLoans(HttpServletRequest request) {
+
+        StreamingResponseBody body = results -> bulkLoanService.createLoans(request.getInputStream(), results);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/customer/{customerId}")
     @PreAuthorize("hasRole('ADMIN') or #customerId == #userPrincipal.id")
     public ResponseEntity<ApiResponse<List<LoanDto>>> getLoansByCustomerId(
             @PathVariable Long customerId,
+            @Valid LoanFilter filter,
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
 
-        List<LoanDto> loans = loanService.getLoansByCustomerId(customerId);
+        LoanPage page = loanService.getLoansByCustomerId(customerId, filter);
 
-        return ResponseEntity.ok(
-                ApiResponse.success(loans, "/credit/loans/customer/" + customerId)
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextAfter() != null) {
+            response.header(NEXT_AFTER_HEADER, String.valueOf(page.nextAfter()));
+        }
+
+        return response.body(
+                ApiResponse.success(page.loans(), "/credit/loans/customer/" + customerId)
         );
     }
 
+    // every loan after the filter's "after" off a cursor, the limit does not apply
+    @GetMapping(value = "/customer/{customerId}", params = "stream=true",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN') or #customerId == #userPrincipal.id")
+    public ResponseEntity<StreamingResponseBody> streamLoansByCustomerId(
+            @PathVariable Long customerId,
+            @Valid LoanFilter filter,
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            HttpServletRequest request) {
+
+        LoanStreamService.Format format = streamFormat(request);
+        StreamingResponseBody body = out -> loanStreamService.writeLoansByCustomerId(
+                customerId, filter, format, "/credit/loans/customer/" + customerId, out);
+
+        return streamResponse(format, body);
+    }
+
     @GetMapping("/{loanId}/installments")
     @PreAuthorize("hasRole('ADMIN') or @loanSecurityService.isLoanOwner(#loanId, #userPrincipal.id)")
     public ResponseEntity<ApiResponse<List<InstallmentDto>>> getLoanInstallments(
@@ -61,6 +116,34 @@ public class LoanController {
         );
     }
 
+    @GetMapping(value = "/{loanId}/installments", params = "stream=true",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN') or @loanSecurityService.isLoanOwner(#loanId, #userPrincipal.id)")
+    public ResponseEntity<StreamingResponseBody> streamLoanInstallments(
+            @PathVariable Long loanId,
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            HttpServletRequest request) {
+
+        LoanStreamService.Format format = streamFormat(request);
+        StreamingResponseBody body = out -> loanStreamService.writeLoanInstallments(
+                loanId, format, "/credit/loans/" + loanId + "/installments", out);
+
+        return streamResponse(format, body);
+    }
+
+    @GetMapping("/{loanId}/quote")
+    @PreAuthorize("hasRole('ADMIN') or @loanSecurityService.isLoanOwner(#loanId, #userPrincipal.id)")
+    public ResponseEntity<ApiResponse<PayoffQuote>> getPayoffQuote(
+            @PathVariable Long loanId,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        PayoffQuote quote = loanService.getPayoffQuote(loanId);
+
+        return ResponseEntity.ok(
+                ApiResponse.success(quote, "/credit/loans/" + loanId + "/quote")
+        );
+    }
+
     @PostMapping("/pay")
     @PreAuthorize("hasRole('ADMIN') or @loanSecurityService.isLoanOwner(#request.loanId, #userPrincipal.id)")
     public ResponseEntity<ApiResponse<PaymentResult>> payLoanInstallments(
@@ -71,4 +154,46 @@ public class LoanController {
 
         return ResponseEntity.ok(ApiResponse.success(result, "/credit/loans/pay"));
     }
+
+    @PostMapping(value = "/pay/bulk",
+            consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> payLoans(HttpServletRequest request) {
+
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        BulkPaymentService.Format format = MediaType.APPLICATION_NDJSON.includes(contentType)
+                ? BulkPaymentService.Format.NDJSON
+                : BulkPaymentService.Format.CSV;
+        StreamingResponseBody body = results -> bulkPaymentService.payLoans(request.getInputStream(), format, results);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/delinquency-report")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<DelinquencyReport>> getDelinquencyReport() {
+
+        DelinquencyReport report = delinquencyScanner.latestReport()
+                .orElseThrow(() -> new ResourceNotFoundException("Delinquency report has not been generated yet"));
+
+        return ResponseEntity.ok(ApiResponse.success(report, "/credit/loans/delinquency-report"));
+    }
+
+    // NDJSON only when asked for by name, a wildcard Accept gets the JSON envelope
+    private static LoanStreamService.Format streamFormat(HttpServletRequest request) {
+        return MediaType.parseMediaTypes(request.getHeader(HttpHeaders.ACCEPT)).stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype)
+                ? LoanStreamService.Format.NDJSON
+                : LoanStreamService.Format.JSON;
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streamResponse(LoanStreamService.Format format,
+                                                                        StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(format == LoanStreamService.Format.NDJSON ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
 }
@@ -1,50 +1,30 @@
 package tr.com.xbank.credit.dto;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import tr.com.xbank.credit.util.DateTimeUtil;
 
 import java.util.List;
 
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-public class ApiResponse<T> {
-    private boolean success;            // is success or not
-    private String message;             // success or error message
-    private T data;                     // return object from service class, if successful
-    private List<String> errors;        // error details
-    private int errorCode;              // http code or a specified system error code
-    private long timestamp_unix;        // timestamp in unix format
-
-    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DateTimeUtil.DATE_TIME_PATTERN_WITH_ISO_8601_TIMEZONE)
-    private String timestamp_iso8601;   // timestamp in iso8601 format
-    private String path;                // request path
+@JsonSerialize(using = ApiResponseSerializer.class)
+public record ApiResponse<T>(
+        boolean success,            // is success or not
+        String message,             // success or error message
+        T data,                     // return object from service class, if successful
+        List<String> errors,        // error details
+        int errorCode,              // http code or a specified system error code
+        long timestamp_unix,        // timestamp in unix format
+        String timestamp_iso8601,   // timestamp in iso8601 format
+        String path                 // request path
+) {
 
     public static <T> ApiResponse<T> success(T data, String path) {
-        return ApiResponse.<T>builder()
-                .success(true)
-                .message("SUCCESS")
-                .data(data)
-                .timestamp_unix(System.currentTimeMillis())
-                .timestamp_iso8601(DateTimeUtil.getIso8601Timestamp())
-                .path(path)
-                .build();
+        DateTimeUtil.Timestamp timestamp = DateTimeUtil.now();
+        return new ApiResponse<>(true, "SUCCESS", data, null, 0, timestamp.unix(), timestamp.iso8601(), path);
     }
 
     public static <T> ApiResponse<T> error(List<String> errors, int errorCode, String message, String path) {
-        return ApiResponse.<T>builder()
-                .success(false)
-                .message(message)
-                .errors(errors)
-                .errorCode(errorCode)
-                .timestamp_unix(System.currentTimeMillis())
-                .timestamp_iso8601(DateTimeUtil.getIso8601Timestamp())
-                .path(path)
-                .build();
+        DateTimeUtil.Timestamp timestamp = DateTimeUtil.now();
+        return new ApiResponse<>(false, message, null, errors == null ? null : List.copyOf(errors), errorCode,
+                timestamp.unix(), timestamp.iso8601(), path);
     }
 }
@@ -0,0 +1,78 @@
+package tr.com.xbank.credit.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes {@link ApiResponse} field by field with pre-encoded field names, instead of introspecting the
+ * envelope on every response. Only {@code data} goes through the serializer Jackson caches for its type.
+ * The output is the same as the bean serialization: every field, in declaration order, nulls included.
+ */
+public class ApiResponseSerializer extends StdSerializer<ApiResponse<?>> {
+
+    private static final SerializedString SUCCESS = new SerializedString("success");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString DATA = new SerializedString("data");
+    private static final SerializedString ERRORS = new SerializedString("errors");
+    private static final SerializedString ERROR_CODE = new SerializedString("errorCode");
+    private static final SerializedString TIMESTAMP_UNIX = new SerializedString("timestamp_unix");
+    private static final SerializedString TIMESTAMP_ISO_8601 = new SerializedString("timestamp_iso8601");
+    private static final SerializedString PATH = new SerializedString("path");
+
+    public ApiResponseSerializer() {
+        super(ApiResponse.class, false);
+    }
+
+    @Override
+    public void serialize(ApiResponse<?> response, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        writeHead(response, gen);
+        provider.defaultSerializeValue(response.data(), gen);
+        writeTail(response, gen);
+    }
+
+    /**
+     * Writes the envelope up to the {@code data} field name, so that the data can be written in parts.
+     */
+    public static void writeHead(ApiResponse<?> response, JsonGenerator gen) throws IOException {
+        gen.writeStartObject(response);
+        gen.writeFieldName(SUCCESS);
+        gen.writeBoolean(response.success());
+        gen.writeFieldName(MESSAGE);
+        gen.writeString(response.message());
+        gen.writeFieldName(DATA);
+    }
+
+    /**
+     * Writes the envelope from after the {@code data} value to the end.
+     */
+    public static void writeTail(ApiResponse<?> response, JsonGenerator gen) throws IOException {
+        gen.writeFieldName(ERRORS);
+        writeErrors(response.errors(), gen);
+        gen.writeFieldName(ERROR_CODE);
+        gen.writeNumber(response.errorCode());
+        gen.writeFieldName(TIMESTAMP_UNIX);
+        gen.writeNumber(response.timestamp_unix());
+        gen.writeFieldName(TIMESTAMP_ISO_8601);
+        gen.writeString(response.timestamp_iso8601());
+        gen.writeFieldName(PATH);
+        gen.writeString(response.path());
+        gen.writeEndObject();
+    }
+
+    private static void writeErrors(List<String> errors, JsonGenerator gen) throws IOException {
+        if (errors == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartArray(errors, errors.size());
+        for (String error : errors) {
+            gen.writeString(error);
+        }
+        gen.writeEndArray();
+    }
+}
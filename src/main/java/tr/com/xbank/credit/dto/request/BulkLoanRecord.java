@@ -0,0 +1,6 @@
+package tr.com.xbank.credit.dto.request;
+
+public record BulkLoanRecord(
+        long record,                    // line number in the uploaded file
+        CreateLoanRequest request
+) {}
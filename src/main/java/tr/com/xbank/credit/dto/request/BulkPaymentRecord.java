@@ -0,0 +1,6 @@
+package tr.com.xbank.credit.dto.request;
+
+public record BulkPaymentRecord(
+        long record,
+        PayLoanRequest request
+) {}
@@ -0,0 +1,60 @@
+package tr.com.xbank.credit.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Query parameters of {@code GET /loans/customer/{customerId}}. Pages are seeked by loan id: pass the
+ * {@code X-Next-After} header of a response as {@code after} to read the next page.
+ */
+public record LoanFilter(
+        Boolean isPaid,
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate createdFrom,          // inclusive
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate createdTo,            // inclusive
+
+        @PositiveOrZero(message = "After must not be negative")
+        Long after,
+
+        @Min(value = 1, message = "Limit must be at least 1")
+        @Max(value = LoanFilter.MAX_LIMIT, message = "Limit must be at most " + LoanFilter.MAX_LIMIT)
+        Integer limit
+) {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    public static LoanFilter firstPage() {
+        return new LoanFilter(null, null, null, null, null);
+    }
+
+    public int limitOrDefault() {
+        return limit != null ? limit : DEFAULT_LIMIT;
+    }
+
+    public long afterOrZero() {
+        return after != null ? after : 0L;
+    }
+
+    public void validateCreationDateRange() {
+        if (createdFrom != null && createdTo != null && createdFrom.isAfter(createdTo)) {
+            throw new IllegalArgumentException("createdFrom must not be after createdTo");
+        }
+    }
+
+    public LocalDateTime createdFromStart() {
+        return createdFrom != null ? createdFrom.atStartOfDay() : null;
+    }
+
+    // exclusive, the start of the day after createdTo
+    public LocalDateTime createdToEnd() {
+        return createdTo != null ? createdTo.plusDays(1).atStartOfDay() : null;
+    }
+}
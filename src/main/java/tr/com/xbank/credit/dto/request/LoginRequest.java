@@ -0,0 +1,17 @@
+package tr.com.xbank.credit.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+
+public record LoginRequest(
+        @NotEmpty(message = "Username is required")
+        String username,
+
+        @NotEmpty(message = "Password is required")
+        String password
+) {
+    public LoginRequest {
+        if (username == null || password == null) {
+            throw new IllegalArgumentException("All fields are required");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package tr.com.xbank.credit.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkLoanResult(
+        long record,
+        boolean success,
+        Long loanId,
+        String error
+) {
+    public static BulkLoanResult created(long record, Long loanId) {
+        return new BulkLoanResult(record, true, loanId, null);
+    }
+
+    public static BulkLoanResult rejected(long record, String error) {
+        return new BulkLoanResult(record, false, null, error);
+    }
+}
@@ -0,0 +1,29 @@
+package tr.com.xbank.credit.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkPaymentResult(
+        long record,
+        boolean success,
+        Long loanId,
+        Integer installmentsPaid,
+        BigDecimal amountSpent,
+        Boolean isLoanFullyPaid,
+        String error
+) {
+    public static BulkPaymentResult paid(long record, Long loanId, PaymentResult result) {
+        return new BulkPaymentResult(record, true, loanId, result.installmentsPaid(), result.amountSpent(),
+                result.isLoanFullyPaid(), null);
+    }
+
+    public static BulkPaymentResult rejected(long record, Long loanId, String error) {
+        return new BulkPaymentResult(record, false, loanId, null, null, null, error);
+    }
+
+    public static BulkPaymentResult skipped(long record, Long loanId) {
+        return rejected(record, loanId, "Skipped, an earlier payment of the loan was rejected");
+    }
+}
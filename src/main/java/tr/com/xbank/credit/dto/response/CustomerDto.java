@@ -0,0 +1,29 @@
+package tr.com.xbank.credit.dto.response;
+
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.CustomerCredit;
+
+import java.math.BigDecimal;
+
+public record CustomerDto(
+        Long id,
+        String name,
+        String surname,
+        String username,
+        String email,
+        BigDecimal creditLimit,
+        BigDecimal usedCreditLimit
+) {
+    public static CustomerDto mapCustomerToDto(Customer customer, CustomerCredit credit) {
+
+        return new CustomerDto(
+                customer.getId(),
+                customer.getName(),
+                customer.getSurname(),
+                customer.getUsername(),
+                customer.getEmail(),
+                customer.getCreditLimit(),
+                credit.getUsedCreditLimit()
+        );
+    }
+}
@@ -0,0 +1,25 @@
+package tr.com.xbank.credit.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record DelinquencyReport(
+        LocalDate asOf,
+        LocalDateTime generatedAt,
+        long overdueLoans,
+        long overdueInstallments,
+        BigDecimal overdueAmount,
+        BigDecimal penalty,
+        List<Bucket> buckets
+) {
+    // a loan is counted in the bucket of its oldest overdue installment
+    public record Bucket(
+            String daysOverdue,
+            long loans,
+            long installments,
+            BigDecimal overdueAmount,
+            BigDecimal penalty
+    ) {}
+}
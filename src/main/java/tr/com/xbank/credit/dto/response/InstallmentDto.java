@@ -1,7 +1,5 @@
 package tr.com.xbank.credit.dto.response;
 
-import tr.com.xbank.credit.entity.LoanInstallment;
-
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
@@ -13,18 +11,4 @@ public record InstallmentDto(
         LocalDate dueDate,
         LocalDate paymentDate,
         boolean isPaid
-) {
-
-    public static InstallmentDto mapInstallmentToDto(LoanInstallment installment) {
-
-        return new InstallmentDto(
-                installment.getId(),
-                installment.getLoan().getId(),
-                installment.getAmount(),
-                installment.getPaidAmount(),
-                installment.getDueDate(),
-                installment.getPaymentDate(),
-                installment.isPaid()
-        );
-    }
-}
+) {}
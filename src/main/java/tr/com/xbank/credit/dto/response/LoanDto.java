@@ -3,6 +3,7 @@ package tr.com.xbank.credit.dto.response;
 import tr.com.xbank.credit.entity.Loan;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 public record LoanDto(
@@ -12,7 +13,10 @@ public record LoanDto(
         BigDecimal interestRate,
         Integer numberOfInstallment,
         LocalDateTime createDate,
-        boolean isPaid
+        boolean isPaid,
+        int unpaidInstallmentCount,
+        BigDecimal outstandingAmount,
+        LocalDate nextDueDate
 ) {
     public static LoanDto mapLoanToDto(Loan loan) {
 
@@ -23,7 +27,10 @@ public record LoanDto(
                 loan.getInterestRate(),
                 loan.getNumberOfInstallment(),
                 loan.getCreateDate(),
-                loan.isPaid()
+                loan.isPaid(),
+                loan.getUnpaidInstallmentCount(),
+                loan.getOutstandingAmount(),
+                loan.getNextDueDate()
         );
     }
 }
@@ -0,0 +1,8 @@
+package tr.com.xbank.credit.dto.response;
+
+import java.util.List;
+
+public record LoanPage(
+        List<LoanDto> loans,
+        Long nextAfter                  // id to pass as after for the next page, null on the last page
+) {}
@@ -0,0 +1,23 @@
+package tr.com.xbank.credit.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record PayoffQuote(
+        Long loanId,
+        LocalDate asOf,
+        int installmentCount,
+        BigDecimal totalPayable,
+        List<Installment> installments
+) {
+    // cumulativePayable is what paying this installment and all before it costs on asOf
+    public record Installment(
+            Long id,
+            LocalDate dueDate,
+            BigDecimal amount,
+            long daysUntilDue,
+            BigDecimal payableAmount,
+            BigDecimal cumulativePayable
+    ) {}
+}
@@ -0,0 +1,7 @@
+package tr.com.xbank.credit.dto.response;
+
+public record TokenResponse(
+        String accessToken,
+        String tokenType,
+        long expiresIn
+) {}
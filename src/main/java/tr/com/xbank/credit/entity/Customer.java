@@ -6,16 +6,30 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import tr.com.xbank.credit.security.CustomerCredentialListener;
 
 import java.math.BigDecimal;
 
+/**
+ * Customer profile, read on every authentication and loan creation but rarely written, so it is kept
+ * in the second-level cache and looked up by username through the natural id cache. The used credit
+ * limit changes with every loan and lives uncached in {@link CustomerCredit}.
+ */
 @Entity
 @Data
 @Table(name = "customers")
+@EntityListeners(CustomerCredentialListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "customers")
+@NaturalIdCache(region = "customers-by-username")
 public class Customer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+    @SequenceGenerator(name = "customer_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
 
     @NotEmpty(message = "Name is required")
@@ -24,6 +38,7 @@ public class Customer {
     @NotEmpty(message = "Surname is required")
     private String surname;
 
+    @NaturalId
     @NotEmpty(message = "Username is required")
     @Column(unique = true)
     private String username;
@@ -40,6 +55,7 @@ public class Customer {
     @PositiveOrZero(message = "Credit limit must be zero or positive")
     private BigDecimal creditLimit;
 
-    @PositiveOrZero(message = "Used credit limit must be zero or positive")
-    private BigDecimal usedCreditLimit;
+    @JsonIgnore
+    @Version
+    private Long version;
 }
@@ -0,0 +1,33 @@
+package tr.com.xbank.credit.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Credit used by a customer's open loans, one row per customer keyed by the customer id. Split from
+ * {@link Customer} so reservations never touch the cached profile: a bulk update of the customers
+ * table would evict the whole customer cache region.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "customer_credits")
+public class CustomerCredit {
+
+    @Id
+    private Long customerId;
+
+    @PositiveOrZero(message = "Used credit limit must be zero or positive")
+    private BigDecimal usedCreditLimit = BigDecimal.ZERO;
+
+    @Version
+    private Long version;
+
+    public CustomerCredit(Long customerId) {
+        this.customerId = customerId;
+    }
+}
@@ -6,6 +6,7 @@ import jakarta.validation.constraints.Positive;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
@@ -14,7 +15,8 @@ import java.time.LocalDateTime;
 public class Loan {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_seq")
+    @SequenceGenerator(name = "loan_seq", sequenceName = "loans_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -34,6 +36,14 @@ public class Loan {
 
     private boolean isPaid;
 
+    // balance of the unpaid installments, kept up to date by every payment so neither the fully paid
+    // check nor what is owed needs an installment query; LoanBalanceReconciler checks them
+    private int unpaidInstallmentCount;
+
+    private BigDecimal outstandingAmount;
+
+    private LocalDate nextDueDate;
+
     @PrePersist
     protected void onCreate() {
         createDate = LocalDateTime.now();
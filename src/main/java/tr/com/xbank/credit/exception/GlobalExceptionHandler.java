@@ -1,11 +1,14 @@
 package tr.com.xbank.credit.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -16,6 +19,7 @@ import tr.com.xbank.credit.dto.ApiResponse;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
@@ -56,6 +60,42 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         );
     }
 
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<Object> handleConcurrencyFailureException(ConcurrencyFailureException ex,
+                                                                    HttpServletRequest request) {
+        return errorResponseEntity(
+                Collections.singletonList(ex.getMessage()),
+                HttpStatus.CONFLICT.value(),
+                "Resource is busy, please retry",
+                request.getRequestURI(),
+                HttpStatus.CONFLICT
+        );
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Object> handleRejectedExecutionException(RejectedExecutionException ex,
+                                                                   HttpServletRequest request) {
+        return errorResponseEntity(
+                Collections.singletonList("Too many requests in progress, retry later"),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service unavailable",
+                request.getRequestURI(),
+                HttpStatus.SERVICE_UNAVAILABLE
+        );
+    }
+
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<Object> handleAuthenticationException(AuthenticationException ex,
+                                                                HttpServletRequest request) {
+        return errorResponseEntity(
+                Collections.singletonList(ex.getMessage()),
+                HttpStatus.UNAUTHORIZED.value(),
+                "Unauthorized access",
+                request.getRequestURI(),
+                HttpStatus.UNAUTHORIZED
+        );
+    }
+
     @NonNull
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
@@ -85,6 +125,9 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
         ApiResponse<?> response = ApiResponse.error(errors, errorCode, message, path);
 
-        return new ResponseEntity<>(response, status);
+        // set rather than negotiated, so that errors of NDJSON endpoints are still written
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(response);
     }
 }
@@ -0,0 +1,32 @@
+package tr.com.xbank.credit.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import tr.com.xbank.credit.entity.CustomerCredit;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface CustomerCreditRepository extends JpaRepository<CustomerCredit, Long> {
+
+    /**
+     * Atomically adds {@code amount} to the used credit limit if it still fits the customer's credit limit.
+     * @return 1 if the credit was reserved, 0 if the limit is insufficient or the customer does not exist
+     */
+    @Modifying
+    @Query(
+        "UPDATE CustomerCredit c SET c.usedCreditLimit = c.usedCreditLimit + :amount, c.version = c.version + 1 " +
+        "WHERE c.customerId = :customerId " +
+        "AND c.usedCreditLimit + :amount <= (SELECT cu.creditLimit FROM Customer cu WHERE cu.id = :customerId)"
+    )
+    int reserveCreditLimit(Long customerId, BigDecimal amount);
+
+    @Modifying
+    @Query(
+        "UPDATE CustomerCredit c SET c.usedCreditLimit = c.usedCreditLimit - :amount, c.version = c.version + 1 " +
+        "WHERE c.customerId = :customerId"
+    )
+    int releaseCreditLimit(Long customerId, BigDecimal amount);
+}
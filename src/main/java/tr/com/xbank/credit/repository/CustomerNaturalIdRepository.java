@@ -0,0 +1,13 @@
+package tr.com.xbank.credit.repository;
+
+import tr.com.xbank.credit.entity.Customer;
+
+import java.util.Optional;
+
+public interface CustomerNaturalIdRepository {
+
+    /**
+     * Loads the customer by its natural id, served from the natural id and entity caches when both hold it.
+     */
+    Optional<Customer> findByUsername(String username);
+}
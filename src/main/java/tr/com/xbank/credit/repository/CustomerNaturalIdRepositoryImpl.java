@@ -0,0 +1,23 @@
+package tr.com.xbank.credit.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import tr.com.xbank.credit.entity.Customer;
+
+import java.util.Optional;
+
+@Transactional(readOnly = true)
+public class CustomerNaturalIdRepositoryImpl implements CustomerNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Customer> findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Customer.class)
+                .loadOptional(username);
+    }
+}
@@ -1,14 +1,22 @@
 package tr.com.xbank.credit.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import tr.com.xbank.credit.entity.Customer;
 
-import java.util.Optional;
+import java.util.List;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerNaturalIdRepository {
 
-    Optional<Customer> findByUsername(String username);
-    Optional<Customer> findByEmail(String email);
+    // one round trip for both unique columns, each half seeks its unique index where an OR would scan the table
+    @Query(value = "SELECT username, email FROM customers WHERE username = :username " +
+            "UNION ALL SELECT username, email FROM customers WHERE email = :email", nativeQuery = true)
+    List<CustomerIdentity> findByUsernameOrEmail(String username, String email);
+
+    interface CustomerIdentity {
+        String getUsername();
+        String getEmail();
+    }
 }
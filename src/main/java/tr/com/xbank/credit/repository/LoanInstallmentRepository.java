@@ -1,13 +1,22 @@
 package tr.com.xbank.credit.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import tr.com.xbank.credit.dto.response.InstallmentDto;
 import tr.com.xbank.credit.entity.LoanInstallment;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface LoanInstallmentRepository extends JpaRepository<LoanInstallment, Long> {
@@ -15,6 +24,22 @@ public interface LoanInstallmentRepository extends JpaRepository<LoanInstallment
     @EntityGraph(attributePaths = {"loan"})
     List<LoanInstallment> findByLoanId(Long loanId);
 
+    // read-only projection, li.loan.id resolves to the loan_id column without joining loans
+    String INSTALLMENT_DTOS_BY_LOAN_ID =
+        "SELECT new tr.com.xbank.credit.dto.response.InstallmentDto(" +
+        "li.id, li.loan.id, li.amount, li.paidAmount, li.dueDate, li.paymentDate, li.isPaid) " +
+        "FROM LoanInstallment li " +
+        "WHERE li.loan.id = :loanId " +
+        "ORDER BY li.dueDate ASC";
+
+    @Query(INSTALLMENT_DTOS_BY_LOAN_ID)
+    List<InstallmentDto> findInstallmentDtosByLoanId(Long loanId);
+
+    // off a cursor, to be consumed in a read-only transaction
+    @Query(INSTALLMENT_DTOS_BY_LOAN_ID)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<InstallmentDto> streamInstallmentDtosByLoanId(Long loanId);
+
     @Query(
         "SELECT li FROM LoanInstallment li " +
         "WHERE li.loan.id = :loanId AND li.isPaid = false AND li.dueDate <= :maxDueDate " +
@@ -23,8 +48,52 @@ public interface LoanInstallmentRepository extends JpaRepository<LoanInstallment
     List<LoanInstallment> findUnpaidInstallmentsByLoanIdAndMaxDueDate(Long loanId, LocalDate maxDueDate);
 
     @Query(
-        "SELECT COUNT(li) FROM LoanInstallment li " +
+        "SELECT li FROM LoanInstallment li " +
+        "WHERE li.loan.id IN :loanIds AND li.isPaid = false AND li.dueDate <= :maxDueDate " +
+        "ORDER BY li.loan.id ASC, li.dueDate ASC"
+    )
+    List<LoanInstallment> findUnpaidInstallmentsByLoanIdInAndMaxDueDate(Collection<Long> loanIds, LocalDate maxDueDate);
+
+    // loans in (afterLoanId, upToLoanId] without unpaid installments are absent
+    @Query(
+        "SELECT li.loan.id AS loanId, COUNT(li) AS unpaidInstallmentCount, SUM(li.amount) AS outstandingAmount, " +
+        "MIN(li.dueDate) AS nextDueDate FROM LoanInstallment li " +
+        "WHERE li.loan.id > :afterLoanId AND li.loan.id <= :upToLoanId AND li.isPaid = false " +
+        "GROUP BY li.loan.id"
+    )
+    List<UnpaidBalance> sumUnpaidBalancesByLoanIdRange(long afterLoanId, long upToLoanId);
+
+    @Query(
+        "SELECT li.loan.id AS loanId, COUNT(li) AS unpaidInstallmentCount, SUM(li.amount) AS outstandingAmount, " +
+        "MIN(li.dueDate) AS nextDueDate FROM LoanInstallment li " +
+        "WHERE li.loan.id IN :loanIds AND li.isPaid = false " +
+        "GROUP BY li.loan.id"
+    )
+    List<UnpaidBalance> sumUnpaidBalancesByLoanIdIn(Collection<Long> loanIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(
+        "SELECT li FROM LoanInstallment li " +
         "WHERE li.loan.id = :loanId AND li.isPaid = false"
     )
-    long countUnpaidInstallmentsByLoanId(Long loanId);
+    List<LoanInstallment> lockUnpaidInstallmentsByLoanId(Long loanId);
+
+    // ordered by id so overlapping batches lock rows in the same order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(
+        "SELECT li FROM LoanInstallment li " +
+        "WHERE li.loan.id IN :loanIds AND li.isPaid = false " +
+        "ORDER BY li.id ASC"
+    )
+    List<LoanInstallment> lockUnpaidInstallmentsByLoanIdIn(Collection<Long> loanIds);
+
+    interface UnpaidBalance {
+        Long getLoanId();
+
+        long getUnpaidInstallmentCount();
+
+        BigDecimal getOutstandingAmount();
+
+        LocalDate getNextDueDate();
+    }
 }
@@ -1,13 +1,21 @@
 package tr.com.xbank.credit.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
+import tr.com.xbank.credit.dto.response.LoanDto;
 import tr.com.xbank.credit.entity.Loan;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface LoanRepository extends JpaRepository<Loan, Long> {
@@ -16,8 +24,36 @@ public interface LoanRepository extends JpaRepository<Loan, Long> {
     @EntityGraph(attributePaths = {"customer"})
     List<Loan> findByCustomerId(@NonNull Long customerId);
 
+    // read-only projection, l.customer.id resolves to the customer_id column without joining customers
+    String LOAN_DTOS_BY_CUSTOMER_ID =
+        "SELECT new tr.com.xbank.credit.dto.response.LoanDto(" +
+        "l.id, l.customer.id, l.loanAmount, l.interestRate, l.numberOfInstallment, l.createDate, l.isPaid, " +
+        "l.unpaidInstallmentCount, l.outstandingAmount, l.nextDueDate) " +
+        "FROM Loan l " +
+        "WHERE l.customer.id = :customerId AND l.id > :after " +
+        "AND (:isPaid IS NULL OR l.isPaid = :isPaid) " +
+        "AND (:createdFrom IS NULL OR l.createDate >= :createdFrom) " +
+        "AND (:createdTo IS NULL OR l.createDate < :createdTo) " +
+        "ORDER BY l.id ASC";
+
+    @Query(LOAN_DTOS_BY_CUSTOMER_ID)
+    List<LoanDto> findPageByCustomerId(Long customerId, long after, Boolean isPaid,
+                                       LocalDateTime createdFrom, LocalDateTime createdTo, Limit limit);
+
+    // every matching loan off a cursor, to be consumed in a read-only transaction
+    @Query(LOAN_DTOS_BY_CUSTOMER_ID)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<LoanDto> streamByCustomerId(Long customerId, long after, Boolean isPaid,
+                                       LocalDateTime createdFrom, LocalDateTime createdTo);
+
     @Override
     @NonNull
     @EntityGraph(attributePaths = {"customer"})
     Optional<Loan> findById(@NonNull Long id);
+
+    @Query("SELECT l FROM Loan l WHERE l.id > :after ORDER BY l.id ASC")
+    List<Loan> findPageAfter(long after, Limit limit);
+
+    @Query("SELECT l.customer.id FROM Loan l WHERE l.id = :loanId")
+    Optional<Long> findCustomerIdById(Long loanId);
 }
@@ -0,0 +1,7 @@
+package tr.com.xbank.credit.security;
+
+public enum AuthMode {
+    BASIC,      // HTTP Basic on every request
+    TOKEN,      // signed bearer tokens issued by /customers/login
+    BOTH        // either of the above, useful while clients migrate
+}
@@ -0,0 +1,60 @@
+package tr.com.xbank.credit.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * BCrypt cost of the password encoder, from {@code app.security.password-hashing.strength}: a log2 round
+ * count, or {@code adaptive} for the highest cost whose hash fits {@code app.security.password-hashing.latency-budget}
+ * on this machine, never below {@code app.security.password-hashing.min-strength}. A hash takes twice as long
+ * with each step, so the cost is derived from the time of the minimum one, measured at startup. Hashes of
+ * another cost still verify, the cost is part of the hash.
+ */
+@Slf4j
+public final class BCryptStrength {
+
+    public static final String ADAPTIVE = "adaptive";
+
+    static final int MAX_STRENGTH = 31;
+    private static final int MEASUREMENTS = 3;
+
+    private BCryptStrength() {
+    }
+
+    public static int resolve(String strength, Duration latencyBudget, int minStrength) {
+        if (!ADAPTIVE.equalsIgnoreCase(strength.trim())) {
+            return Integer.parseInt(strength.trim());
+        }
+
+        long minimumNanos = measure(minStrength);
+        int calibrated = calibrate(minimumNanos, latencyBudget.toNanos(), minStrength);
+        log.info("BCrypt strength {}: a strength {} hash takes {} ms, the latency budget is {} ms", calibrated,
+                minStrength, minimumNanos / 1_000_000, latencyBudget.toMillis());
+        return calibrated;
+    }
+
+    // each step above the minimum doubles the time of a hash
+    static int calibrate(long minimumNanos, long budgetNanos, int minStrength) {
+        int strength = minStrength;
+        long nanos = Math.max(1, minimumNanos);
+        while (strength < MAX_STRENGTH && nanos <= budgetNanos / 2) {
+            nanos *= 2;
+            strength++;
+        }
+        return strength;
+    }
+
+    // the fastest of a few hashes, the first ones also warm up the code
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < MEASUREMENTS; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+}
@@ -0,0 +1,48 @@
+package tr.com.xbank.credit.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Serves repeated HTTP Basic logins from {@link CredentialCache} and only falls back to the
+ * delegate (user lookup plus BCrypt) on a miss.
+ */
+@RequiredArgsConstructor
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final CredentialCache credentialCache;
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+
+        if (credentials == null) {
+            return delegate.authenticate(authentication);
+        }
+
+        UserPrincipal cachedPrincipal = credentialCache.get(username, credentials.toString());
+        if (cachedPrincipal != null) {
+            UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+                    cachedPrincipal, credentials, cachedPrincipal.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.getPrincipal() instanceof UserPrincipal principal) {
+            credentialCache.put(username, credentials.toString(), principal);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
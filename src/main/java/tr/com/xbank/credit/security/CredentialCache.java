@@ -0,0 +1,104 @@
+package tr.com.xbank.credit.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+/**
+ * Bounded, TTL-evicted store of credentials that already passed a BCrypt verification.
+ * Entries are keyed by username and hold an HMAC fingerprint of the presented password, so a
+ * hit proves the caller sent the same secret without running BCrypt again, and a user's entry
+ * is evicted by key. The HMAC key is generated per process and never leaves memory.
+ */
+@Component
+public class CredentialCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+    // hits and misses are recorded here, since a cached entry is only a hit for the same password
+    private final StatsCounter stats = new ConcurrentStatsCounter();
+    private final Cache<String, CachedCredential> cache;
+    private final ThreadLocal<Mac> fingerprintMac;
+
+    public CredentialCache(MeterRegistry meterRegistry,
+                           @Value("${app.security.credential-cache.enabled:true}") boolean enabled,
+                           @Value("${app.security.credential-cache.max-size:10000}") long maxSize,
+                           @Value("${app.security.credential-cache.ttl:5m}") Duration ttl) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats(() -> stats)
+                .build();
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        SecretKeySpec keySpec = new SecretKeySpec(key, HMAC_ALGORITHM);
+        this.fingerprintMac = ThreadLocal.withInitial(() -> newMac(keySpec));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.credentials");
+    }
+
+    public UserPrincipal get(String username, String presentedPassword) {
+        if (!enabled) {
+            return null;
+        }
+        // asMap().get does not record stats, the outcome is recorded once the fingerprint is compared
+        CachedCredential cached = cache.asMap().get(username);
+        if (cached != null && MessageDigest.isEqual(cached.fingerprint(), fingerprint(presentedPassword))) {
+            stats.recordHits(1);
+            return cached.principal();
+        }
+        stats.recordMisses(1);
+        return null;
+    }
+
+    public void put(String username, String presentedPassword, UserPrincipal principal) {
+        if (enabled) {
+            cache.put(username, new CachedCredential(fingerprint(presentedPassword), principal));
+        }
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    /**
+     * Drops the cached entry of the user if its stored password hash no longer matches,
+     * keeping the cache warm when unrelated customer columns are updated.
+     */
+    public void invalidateIfPasswordChanged(String username, String encodedPassword) {
+        cache.asMap().computeIfPresent(username, (key, cached) ->
+                cached.principal().getPassword().equals(encodedPassword) ? cached : null);
+    }
+
+    private byte[] fingerprint(String presentedPassword) {
+        return fingerprintMac.get().doFinal(presentedPassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Mac newMac(SecretKeySpec keySpec) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(keySpec);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize credential fingerprint", e);
+        }
+    }
+
+    private record CachedCredential(byte[] fingerprint, UserPrincipal principal) {}
+}
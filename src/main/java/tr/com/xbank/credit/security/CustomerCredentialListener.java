@@ -0,0 +1,49 @@
+package tr.com.xbank.credit.security;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tr.com.xbank.credit.entity.Customer;
+
+/**
+ * Evicts cached credentials when a customer's password changes or the customer is removed. The
+ * callbacks run at flush, so eviction waits for the commit: until then authentications still read the
+ * old hash and could cache the old password again.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerCredentialListener {
+
+    private final CredentialCache credentialCache;
+
+    @PostUpdate
+    public void onUpdate(Customer customer) {
+        String username = customer.getUsername();
+        String encodedPassword = customer.getPassword();
+        afterCommit(() -> credentialCache.invalidateIfPasswordChanged(username, encodedPassword));
+    }
+
+    @PostRemove
+    public void onRemove(Customer customer) {
+        String username = customer.getUsername();
+        afterCommit(() -> credentialCache.invalidate(username));
+    }
+
+    // outside a transaction the change is already committed
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+}
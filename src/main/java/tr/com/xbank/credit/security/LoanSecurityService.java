@@ -1,20 +1,44 @@
 package tr.com.xbank.credit.security;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import tr.com.xbank.credit.repository.LoanRepository;
 
+import java.time.Duration;
+
 @Service
-@RequiredArgsConstructor
 public class LoanSecurityService {
 
     private final LoanRepository loanRepository;
 
-    @Transactional(readOnly = true)
+    // a loan never changes owner, so cached entries can only go stale by the loan disappearing
+    private final Cache<Long, Long> loanOwners;
+
+    public LoanSecurityService(LoanRepository loanRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.security.loan-owner-cache.max-size:10000}") long maxSize,
+                               @Value("${app.security.loan-owner-cache.ttl:10m}") Duration ttl) {
+        this.loanRepository = loanRepository;
+        this.loanOwners = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, loanOwners, "loan.owners");
+    }
+
     public boolean isLoanOwner(Long loanId, Long userId) {
-        return loanRepository.findById(loanId)
-                .map(loan -> loan.getCustomer().getId().equals(userId))
-                .orElse(false);
+        if (loanId == null || userId == null) {
+            return false;
+        }
+
+        Long ownerId = loanOwners.get(loanId, id -> loanRepository.findCustomerIdById(id).orElse(null));
+
+        return userId.equals(ownerId);
     }
 }
@@ -0,0 +1,71 @@
+package tr.com.xbank.credit.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashes passwords on a small pool of platform threads of its own, {@code app.security.password-hashing.threads}
+ * (0 = half the cores, at least one) with room for {@code app.security.password-hashing.queue-capacity} waiting
+ * hashes. A BCrypt hash is tens of milliseconds of CPU, so a burst of registrations runs at the pace of this
+ * pool instead of taking every core, or a request thread holding a connection. Hashes beyond the queue
+ * are rejected with a {@link java.util.concurrent.RejectedExecutionException}. Timed as
+ * {@code credit.password.hashing}, queueing included.
+ */
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Timer hashing;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.security.password-hashing.threads:0}") int threads,
+                          @Value("${app.security.password-hashing.queue-capacity:100}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.hashing = Timer.builder("credit.password.hashing")
+                .description("Password hashes, from submission to result")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        Timer.Sample sample = Timer.start();
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor)
+                .whenComplete((hash, failure) -> sample.stop(hashing));
+    }
+
+    /**
+     * {@link #encodeAsync}, waited for by the calling thread.
+     */
+    public String encode(CharSequence rawPassword) {
+        try {
+            return encodeAsync(rawPassword).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package tr.com.xbank.credit.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import tr.com.xbank.credit.dto.response.TokenResponse;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Issues and verifies locally signed bearer tokens of the form
+ * {@code base64url(id|username|role|expiresAt).base64url(HMAC-SHA256)}.
+ * Verification only needs the signing key, so no database lookup is done per request.
+ */
+@Slf4j
+@Component
+public class TokenService {
+
+    public static final String TOKEN_TYPE = "Bearer";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final char SEPARATOR = '|';
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final AuthMode authMode;
+    private final Duration ttl;
+    private final Clock clock = Clock.systemUTC();
+    private final ThreadLocal<Mac> signer;
+
+    public TokenService(@Value("${app.security.auth-mode:basic}") AuthMode authMode,
+                        @Value("${app.security.token.secret:}") String secret,
+                        @Value("${app.security.token.ttl:15m}") Duration ttl) {
+        this.authMode = authMode;
+        this.ttl = ttl;
+
+        SecretKeySpec keySpec = new SecretKeySpec(resolveKey(secret), HMAC_ALGORITHM);
+        this.signer = ThreadLocal.withInitial(() -> newMac(keySpec));
+    }
+
+    public boolean isEnabled() {
+        return authMode != AuthMode.BASIC;
+    }
+
+    public TokenResponse issue(UserPrincipal principal) {
+        long expiresAt = clock.instant().plus(ttl).getEpochSecond();
+
+        String payload = principal.getId() + String.valueOf(SEPARATOR)
+                + principal.getUsername() + SEPARATOR
+                + principal.getRole() + SEPARATOR
+                + expiresAt;
+
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        String token = ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+
+        return new TokenResponse(token, TOKEN_TYPE, ttl.toSeconds());
+    }
+
+    /**
+     * @return the principal carried by the token, or {@code null} if the token is malformed,
+     * has an invalid signature or is expired
+     */
+    public UserPrincipal verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return null;
+        }
+
+        try {
+            byte[] payloadBytes = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+                return null;
+            }
+
+            return parsePayload(new String(payloadBytes, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private UserPrincipal parsePayload(String payload) {
+        // username may itself contain the separator, so id is read from the front and role/expiry from the back
+        int idEnd = payload.indexOf(SEPARATOR);
+        int expiryStart = payload.lastIndexOf(SEPARATOR);
+        int roleStart = payload.lastIndexOf(SEPARATOR, expiryStart - 1);
+        if (idEnd < 0 || roleStart <= idEnd) {
+            return null;
+        }
+
+        long expiresAt = Long.parseLong(payload.substring(expiryStart + 1));
+        if (clock.instant().getEpochSecond() >= expiresAt) {
+            return null;
+        }
+
+        return new UserPrincipal(
+                Long.valueOf(payload.substring(0, idEnd)),
+                payload.substring(idEnd + 1, roleStart),
+                null,
+                payload.substring(roleStart + 1, expiryStart)
+        );
+    }
+
+    private byte[] sign(byte[] payload) {
+        return signer.get().doFinal(payload);
+    }
+
+    private byte[] resolveKey(String secret) {
+        if (StringUtils.hasText(secret)) {
+            return secret.getBytes(StandardCharsets.UTF_8);
+        }
+
+        if (isEnabled()) {
+            log.warn("app.security.token.secret is not set, using a random signing key. " +
+                    "Issued tokens will not survive a restart or be accepted by other nodes.");
+        }
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    private static Mac newMac(SecretKeySpec keySpec) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(keySpec);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize token signer", e);
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package tr.com.xbank.credit.security.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -11,10 +15,19 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import tr.com.xbank.credit.security.AuthMode;
+import tr.com.xbank.credit.security.BCryptStrength;
+import tr.com.xbank.credit.security.CachingAuthenticationProvider;
+import tr.com.xbank.credit.security.CredentialCache;
 import tr.com.xbank.credit.security.CustomAccessDeniedHandler;
 import tr.com.xbank.credit.security.CustomAuthenticationEntryPoint;
 import tr.com.xbank.credit.security.CustomUserDetailsService;
+import tr.com.xbank.credit.security.TokenAuthenticationFilter;
+import tr.com.xbank.credit.security.TokenService;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
@@ -27,7 +40,11 @@ public class SecurityConfig {
     private final CustomAccessDeniedHandler accessDeniedHandler;
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   AuthenticationManager authenticationManager,
+                                                   TokenService tokenService,
+                                                   @Value("${app.security.auth-mode:basic}") AuthMode authMode)
+            throws Exception {
 
         http.csrf(csrf -> csrf.disable())
             .authorizeHttpRequests((authorize) -> authorize
@@ -38,6 +55,7 @@ public class SecurityConfig {
                     new AntPathRequestMatcher("/swagger-ui/**"),
                     new AntPathRequestMatcher("/swagger-ui.html")
                 ).permitAll()
+                .requestMatchers(new AntPathRequestMatcher("/actuator/**")).hasRole("ADMIN")
                 .requestMatchers(new AntPathRequestMatcher("/credit/loans/**")).authenticated()
                 .anyRequest().authenticated()
             )
@@ -47,17 +65,37 @@ public class SecurityConfig {
                     .authenticationEntryPoint(authenticationEntryPoint)
                     .accessDeniedHandler(accessDeniedHandler)
             )
-            .userDetailsService(userDetailsService)
+            .authenticationManager(authenticationManager)
             .headers(headers -> headers
                 .frameOptions(frame -> frame.disable())
-            )
-            .httpBasic(Customizer.withDefaults());
+            );
+
+        if (authMode != AuthMode.TOKEN) {
+            http.httpBasic(Customizer.withDefaults());
+        }
+
+        if (authMode != AuthMode.BASIC) {
+            http.addFilterBefore(new TokenAuthenticationFilter(tokenService, authenticationEntryPoint),
+                    BasicAuthenticationFilter.class);
+        }
 
         return http.build();
     }
 
+    // the only provider, shared by HTTP Basic and /customers/login
+    @Bean
+    public AuthenticationManager authenticationManager(PasswordEncoder passwordEncoder,
+                                                       CredentialCache credentialCache) {
+        DaoAuthenticationProvider delegate = new DaoAuthenticationProvider(passwordEncoder);
+        delegate.setUserDetailsService(userDetailsService);
+        return new ProviderManager(new CachingAuthenticationProvider(delegate, credentialCache));
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.password-hashing.strength:10}") String strength,
+            @Value("${app.security.password-hashing.latency-budget:100ms}") Duration latencyBudget,
+            @Value("${app.security.password-hashing.min-strength:10}") int minStrength) {
+        return new BCryptPasswordEncoder(BCryptStrength.resolve(strength, latencyBudget, minStrength));
     }
 }
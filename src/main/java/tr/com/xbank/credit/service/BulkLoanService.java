@@ -0,0 +1,9 @@
+package tr.com.xbank.credit.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface BulkLoanService {
+    void createLoans(InputStream records, OutputStream results) throws IOException;
+}
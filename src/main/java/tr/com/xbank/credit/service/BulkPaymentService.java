@@ -0,0 +1,12 @@
+package tr.com.xbank.credit.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface BulkPaymentService {
+
+    enum Format { CSV, NDJSON }
+
+    void payLoans(InputStream records, Format format, OutputStream results) throws IOException;
+}
@@ -1,8 +1,11 @@
 package tr.com.xbank.credit.service;
 
 import tr.com.xbank.credit.dto.request.CustomerRegistrationRequest;
-import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.dto.request.LoginRequest;
+import tr.com.xbank.credit.dto.response.CustomerDto;
+import tr.com.xbank.credit.dto.response.TokenResponse;
 
 public interface CustomerService {
-    Customer registerCustomer(CustomerRegistrationRequest request);
+    CustomerDto registerCustomer(CustomerRegistrationRequest request);
+    TokenResponse login(LoginRequest request);
 }
@@ -1,16 +1,26 @@
 package tr.com.xbank.credit.service;
 
+import tr.com.xbank.credit.dto.request.BulkLoanRecord;
+import tr.com.xbank.credit.dto.request.BulkPaymentRecord;
 import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.dto.request.LoanFilter;
 import tr.com.xbank.credit.dto.request.PayLoanRequest;
+import tr.com.xbank.credit.dto.response.BulkLoanResult;
+import tr.com.xbank.credit.dto.response.BulkPaymentResult;
 import tr.com.xbank.credit.dto.response.InstallmentDto;
 import tr.com.xbank.credit.dto.response.LoanDto;
+import tr.com.xbank.credit.dto.response.LoanPage;
 import tr.com.xbank.credit.dto.response.PaymentResult;
+import tr.com.xbank.credit.dto.response.PayoffQuote;
 
 import java.util.List;
 
 public interface LoanService {
     LoanDto createLoan(CreateLoanRequest request);
-    List<LoanDto> getLoansByCustomerId(Long customerId);
+    List<BulkLoanResult> createLoans(List<BulkLoanRecord> records);
+    LoanPage getLoansByCustomerId(Long customerId, LoanFilter filter);
     List<InstallmentDto> getLoanInstallments(Long loanId);
+    PayoffQuote getPayoffQuote(Long loanId);
     PaymentResult payLoanInstallments(PayLoanRequest request);
+    List<BulkPaymentResult> payLoans(List<BulkPaymentRecord> records);
 }
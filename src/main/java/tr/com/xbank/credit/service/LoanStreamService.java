@@ -0,0 +1,16 @@
+package tr.com.xbank.credit.service;
+
+import tr.com.xbank.credit.dto.request.LoanFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface LoanStreamService {
+
+    enum Format { JSON, NDJSON }
+
+    void writeLoansByCustomerId(Long customerId, LoanFilter filter, Format format, String path,
+                                OutputStream out) throws IOException;
+
+    void writeLoanInstallments(Long loanId, Format format, String path, OutputStream out) throws IOException;
+}
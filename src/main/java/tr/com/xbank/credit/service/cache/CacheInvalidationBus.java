@@ -0,0 +1,25 @@
+package tr.com.xbank.credit.service.cache;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Carries cache invalidations between application nodes, so a write committed on one node evicts
+ * the entries other nodes hold. Optional: without a bus bean every cache is local to its node. The
+ * implementation is chosen with {@code app.cache.invalidation-bus}.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Sends an invalidation to every subscriber, including those on the publishing node. Delivery
+     * may be asynchronous.
+     */
+    void publish(Invalidation invalidation);
+
+    void subscribe(Consumer<Invalidation> listener);
+
+    /**
+     * Keys of {@code cache} evicted on the node identified by {@code origin}.
+     */
+    record Invalidation(String cache, String origin, Set<Long> keys) {}
+}
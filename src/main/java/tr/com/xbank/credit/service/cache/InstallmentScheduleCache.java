@@ -0,0 +1,140 @@
+package tr.com.xbank.credit.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tr.com.xbank.credit.dto.response.InstallmentDto;
+import tr.com.xbank.credit.service.cache.CacheInvalidationBus.Invalidation;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-evicted read-through cache of installment schedules by loan id. Schedules only change
+ * when loans are created or paid, and those write paths evict the loans they touched once their
+ * transaction commits. A load and an eviction of the same loan are serialized by the cache, so a
+ * schedule read before a commit cannot be stored after the eviction that follows it.
+ * <p>
+ * Evictions are published on the {@link CacheInvalidationBus} when one is configured, so the other
+ * nodes drop their copies too.
+ */
+@Slf4j
+@Component
+public class InstallmentScheduleCache {
+
+    static final String NAME = "loan.installments";
+
+    private final boolean enabled;
+    private final Cache<Long, List<InstallmentDto>> cache;
+    private final CacheInvalidationBus invalidationBus;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Counter localInvalidations;
+    private final Counter remoteInvalidations;
+
+    public InstallmentScheduleCache(MeterRegistry meterRegistry,
+                                    Optional<CacheInvalidationBus> invalidationBus,
+                                    @Value("${app.loan.installment-cache.enabled:true}") boolean enabled,
+                                    @Value("${app.loan.installment-cache.max-size:50000}") long maxSize,
+                                    @Value("${app.loan.installment-cache.ttl:10m}") Duration ttl) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.invalidationBus = invalidationBus.orElse(null);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+        this.localInvalidations = invalidationCounter(meterRegistry, "local");
+        this.remoteInvalidations = invalidationCounter(meterRegistry, "remote");
+
+        if (this.invalidationBus != null) {
+            this.invalidationBus.subscribe(this::onInvalidation);
+        }
+    }
+
+    /**
+     * Returns the cached schedule of the loan, loading it on a miss. Empty schedules are returned
+     * but not cached.
+     */
+    public List<InstallmentDto> get(Long loanId, Function<Long, List<InstallmentDto>> loader) {
+        if (!enabled) {
+            return loader.apply(loanId);
+        }
+        List<InstallmentDto> installments = cache.get(loanId, id -> {
+            List<InstallmentDto> loaded = loader.apply(id);
+            return loaded.isEmpty() ? null : List.copyOf(loaded);
+        });
+        return installments != null ? installments : List.of();
+    }
+
+    public void evictAfterCommit(Long loanId) {
+        evictAfterCommit(List.of(loanId));
+    }
+
+    /**
+     * Evicts the schedules of the given loans when the current transaction commits, leaving them
+     * cached if it rolls back. Outside a transaction they are evicted right away.
+     */
+    public void evictAfterCommit(Collection<Long> loanIds) {
+        if (!enabled || loanIds.isEmpty()) {
+            return;
+        }
+
+        Set<Long> keys = Set.copyOf(loanIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(keys);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(keys);
+            }
+        });
+    }
+
+    private void evict(Set<Long> keys) {
+        cache.invalidateAll(keys);
+        localInvalidations.increment(keys.size());
+
+        if (invalidationBus == null) {
+            return;
+        }
+        try {
+            invalidationBus.publish(new Invalidation(NAME, nodeId, keys));
+        } catch (RuntimeException e) {
+            // the write is already committed, other nodes catch up when their entries expire
+            log.warn("Could not publish invalidation of {} loan schedules", keys.size(), e);
+        }
+    }
+
+    private void onInvalidation(Invalidation invalidation) {
+        if (!NAME.equals(invalidation.cache()) || nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        cache.invalidateAll(invalidation.keys());
+        remoteInvalidations.increment(invalidation.keys().size());
+    }
+
+    private static Counter invalidationCounter(MeterRegistry meterRegistry, String origin) {
+        return Counter.builder("cache.invalidations")
+                .description("Entries evicted explicitly after a write, on this node or announced by another")
+                .tag("cache", NAME)
+                .tag("origin", origin)
+                .register(meterRegistry);
+    }
+}
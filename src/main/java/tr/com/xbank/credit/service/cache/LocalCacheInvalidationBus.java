@@ -0,0 +1,29 @@
+package tr.com.xbank.credit.service.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM stand-in for a message broker: invalidations are delivered synchronously to the subscribers
+ * in this process. Lets tests run several cache instances as if they were separate nodes.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation-bus", havingValue = "local")
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final List<Consumer<Invalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(Invalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<Invalidation> listener) {
+        listeners.add(listener);
+    }
+}
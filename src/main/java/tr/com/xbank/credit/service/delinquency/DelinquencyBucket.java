@@ -0,0 +1,34 @@
+package tr.com.xbank.credit.service.delinquency;
+
+public enum DelinquencyBucket {
+    DAYS_1_30("1-30", 30),
+    DAYS_31_60("31-60", 60),
+    DAYS_61_90("61-90", 90),
+    DAYS_OVER_90("90+", Long.MAX_VALUE);
+
+    private static final DelinquencyBucket[] BUCKETS = values();
+
+    private final String label;
+    private final long maxDaysOverdue;
+
+    DelinquencyBucket(String label, long maxDaysOverdue) {
+        this.label = label;
+        this.maxDaysOverdue = maxDaysOverdue;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public static DelinquencyBucket of(long daysOverdue) {
+        if (daysOverdue < 1) {
+            throw new IllegalArgumentException("Installment is not overdue: " + daysOverdue + " days");
+        }
+        for (DelinquencyBucket bucket : BUCKETS) {
+            if (daysOverdue <= bucket.maxDaysOverdue) {
+                return bucket;
+            }
+        }
+        throw new IllegalStateException();
+    }
+}
@@ -0,0 +1,193 @@
+package tr.com.xbank.credit.service.delinquency;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tr.com.xbank.credit.config.WorkerThreads;
+import tr.com.xbank.credit.dto.response.DelinquencyReport;
+import tr.com.xbank.credit.util.MoneyMath;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Portfolio-wide report of overdue installments and the late penalties a payment would be charged on
+ * the report date, per delinquency bucket. The loan id space is cut into ranges of
+ * {@code app.loan.delinquency.range-size} ids, scanned in parallel by {@code app.loan.delinquency.workers}
+ * threads. Each range streams its overdue installments through a JDBC cursor,
+ * {@code app.loan.delinquency.fetch-size} rows at a time, in the order of the installment index, and adds
+ * them to a few counters, so memory does not grow with the number of installments. Runs on
+ * {@code app.loan.delinquency.cron}, the latest report is kept for {@code GET /loans/delinquency-report}.
+ */
+@Slf4j
+@Component
+public class DelinquencyScanner {
+
+    private static final DelinquencyBucket[] BUCKETS = DelinquencyBucket.values();
+    private static final int AMOUNT_SCALE = 2;
+
+    // ordered like idx_loan_installments_loan_unpaid_due, so rows stream from the index without a sort
+    // and the oldest overdue installment of a loan comes first
+    public static final String OVERDUE_INSTALLMENTS = """
+            SELECT loan_id, amount, due_date FROM loan_installments
+            WHERE loan_id >= ? AND loan_id < ? AND is_paid = FALSE AND due_date < ?
+            ORDER BY loan_id, is_paid, due_date""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final ExecutorService workers;
+    private final long rangeSize;
+
+    private volatile DelinquencyReport latestReport;
+
+    public DelinquencyScanner(DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.loan.delinquency.workers:0}") int workerCount,
+                              @Value("${app.loan.delinquency.range-size:10000}") long rangeSize,
+                              @Value("${app.loan.delinquency.fetch-size:1000}") int fetchSize,
+                              @Value(WorkerThreads.VIRTUAL_THREADS_ENABLED) boolean virtualThreads) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        // some drivers (PostgreSQL) only stream with a fetch size inside a transaction
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.rangeSize = rangeSize;
+
+        int poolSize = workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+        this.workers = Executors.newFixedThreadPool(poolSize, WorkerThreads.factory("delinquency-scan-", virtualThreads));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    @Scheduled(cron = "${app.loan.delinquency.cron:-}")
+    void scheduledScan() {
+        scan(LocalDate.now());
+    }
+
+    public Optional<DelinquencyReport> latestReport() {
+        return Optional.ofNullable(latestReport);
+    }
+
+    /**
+     * Scans the installments overdue on {@code asOf} and keeps the result as the latest report.
+     */
+    public DelinquencyReport scan(LocalDate asOf) {
+        long startNanos = System.nanoTime();
+        Long[] loanIds = jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM loans",
+                (rs, rowNum) -> new Long[]{rs.getObject(1, Long.class), rs.getObject(2, Long.class)});
+
+        Totals totals = new Totals();
+        if (loanIds[0] != null) {
+            List<CompletableFuture<Totals>> ranges = new ArrayList<>();
+            for (long from = loanIds[0]; from <= loanIds[1]; from += rangeSize) {
+                long start = from;
+                long end = Math.min(from + rangeSize, loanIds[1] + 1);
+                ranges.add(CompletableFuture.supplyAsync(() -> scanRange(start, end, asOf), workers));
+            }
+            ranges.forEach(range -> totals.merge(range.join()));
+        }
+
+        DelinquencyReport report = totals.toReport(asOf);
+        latestReport = report;
+
+        log.info("Delinquency scan as of {} found {} overdue installments on {} loans in {} ms", asOf,
+                report.overdueInstallments(), report.overdueLoans(), (System.nanoTime() - startNanos) / 1_000_000);
+        report.buckets().forEach(bucket -> log.info("  {} days: {} loans, {} installments, {} overdue, {} penalty",
+                bucket.daysOverdue(), bucket.loans(), bucket.installments(), bucket.overdueAmount(), bucket.penalty()));
+        return report;
+    }
+
+    private Totals scanRange(long fromLoanId, long toLoanId, LocalDate asOf) {
+        Totals totals = new Totals();
+        long today = asOf.toEpochDay();
+        readTransaction.executeWithoutResult(status -> jdbcTemplate.query(OVERDUE_INSTALLMENTS,
+                (RowCallbackHandler) rs -> totals.add(rs, today), fromLoanId, toLoanId, asOf));
+        return totals;
+    }
+
+    // counters per bucket, in MoneyMath units
+    private static final class Totals {
+
+        private final long[] loans = new long[BUCKETS.length];
+        private final long[] installments = new long[BUCKETS.length];
+        private final long[] amountUnits = new long[BUCKETS.length];
+        private final long[] penaltyUnits = new long[BUCKETS.length];
+        private long lastLoanId = -1;
+
+        void add(ResultSet rs, long today) throws SQLException {
+            long loanId = rs.getLong(1);
+            long baseUnits = MoneyMath.toUnits(rs.getBigDecimal(2));
+            long daysUntilDue = rs.getObject(3, LocalDate.class).toEpochDay() - today;
+            int bucket = DelinquencyBucket.of(-daysUntilDue).ordinal();
+
+            // the same late penalty LoanServiceImpl charges when the installment is paid today
+            long penalty = MoneyMath.adjustedUnits(baseUnits, daysUntilDue) - baseUnits;
+
+            if (loanId != lastLoanId) {
+                loans[bucket]++;
+                lastLoanId = loanId;
+            }
+            installments[bucket]++;
+            amountUnits[bucket] = Math.addExact(amountUnits[bucket], baseUnits);
+            penaltyUnits[bucket] = Math.addExact(penaltyUnits[bucket], penalty);
+        }
+
+        void merge(Totals other) {
+            for (int i = 0; i < BUCKETS.length; i++) {
+                loans[i] += other.loans[i];
+                installments[i] += other.installments[i];
+                amountUnits[i] = Math.addExact(amountUnits[i], other.amountUnits[i]);
+                penaltyUnits[i] = Math.addExact(penaltyUnits[i], other.penaltyUnits[i]);
+            }
+        }
+
+        DelinquencyReport toReport(LocalDate asOf) {
+            List<DelinquencyReport.Bucket> buckets = new ArrayList<>(BUCKETS.length);
+            long totalLoans = 0;
+            long totalInstallments = 0;
+            long totalAmountUnits = 0;
+            long totalPenaltyUnits = 0;
+
+            for (DelinquencyBucket bucket : BUCKETS) {
+                int i = bucket.ordinal();
+                buckets.add(new DelinquencyReport.Bucket(bucket.label(), loans[i], installments[i],
+                        toAmount(amountUnits[i]), toPenalty(penaltyUnits[i])));
+                totalLoans += loans[i];
+                totalInstallments += installments[i];
+                totalAmountUnits = Math.addExact(totalAmountUnits, amountUnits[i]);
+                totalPenaltyUnits = Math.addExact(totalPenaltyUnits, penaltyUnits[i]);
+            }
+
+            return new DelinquencyReport(asOf, LocalDateTime.now(), totalLoans, totalInstallments,
+                    toAmount(totalAmountUnits), toPenalty(totalPenaltyUnits), buckets);
+        }
+
+        // installment amounts have two decimals, penalties the three of the per-mille rate on top
+        private static BigDecimal toAmount(long units) {
+            return MoneyMath.toAmount(units, AMOUNT_SCALE);
+        }
+
+        private static BigDecimal toPenalty(long units) {
+            return MoneyMath.toAmount(units, MoneyMath.SCALE);
+        }
+    }
+}
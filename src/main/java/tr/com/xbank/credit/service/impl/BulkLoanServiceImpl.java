@@ -0,0 +1,129 @@
+package tr.com.xbank.credit.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tr.com.xbank.credit.dto.request.BulkLoanRecord;
+import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.dto.response.BulkLoanResult;
+import tr.com.xbank.credit.service.BulkLoanService;
+import tr.com.xbank.credit.service.LoanService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads NDJSON {@link CreateLoanRequest} records line by line, validates them with the same bean
+ * constraints as {@code /loans/create}, hands valid records to {@link LoanService#createLoans} in
+ * chunks (one transaction each) and writes one NDJSON {@link BulkLoanResult} per record as soon as
+ * its chunk is done. Rejected records count towards the chunk, so at most {@code chunk-size} records
+ * and results are held in memory at a time.
+ */
+@Slf4j
+@Service
+public class BulkLoanServiceImpl implements BulkLoanService {
+
+    private final LoanService loanService;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final ObjectWriter resultWriter;
+    private final int chunkSize;
+
+    public BulkLoanServiceImpl(LoanService loanService,
+                               Validator validator,
+                               ObjectMapper objectMapper,
+                               @Value("${app.loan.bulk.chunk-size:500}") int chunkSize) {
+        this.loanService = loanService;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(CreateLoanRequest.class);
+        this.resultWriter = objectMapper.writerFor(BulkLoanResult.class);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void createLoans(InputStream records, OutputStream results) throws IOException {
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(records, StandardCharsets.UTF_8));
+        List<BulkLoanRecord> chunk = new ArrayList<>(chunkSize);
+        List<BulkLoanResult> chunkResults = new ArrayList<>();
+        long lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            BulkLoanResult invalid = parseAndValidate(lineNumber, line, chunk);
+            if (invalid != null) {
+                chunkResults.add(invalid);
+            }
+
+            if (chunk.size() + chunkResults.size() >= chunkSize) {
+                processChunk(chunk, chunkResults, results);
+            }
+        }
+
+        processChunk(chunk, chunkResults, results);
+    }
+
+    private BulkLoanResult parseAndValidate(long lineNumber, String line, List<BulkLoanRecord> chunk) {
+        CreateLoanRequest request;
+        try {
+            request = requestReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            return BulkLoanResult.rejected(lineNumber, "Malformed record: " + e.getOriginalMessage());
+        }
+
+        Set<ConstraintViolation<CreateLoanRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return BulkLoanResult.rejected(lineNumber, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        chunk.add(new BulkLoanRecord(lineNumber, request));
+        return null;
+    }
+
+    private void processChunk(List<BulkLoanRecord> chunk, List<BulkLoanResult> chunkResults,
+                              OutputStream results) throws IOException {
+        if (!chunk.isEmpty()) {
+            try {
+                chunkResults.addAll(loanService.createLoans(chunk));
+            } catch (RuntimeException e) {
+                log.warn("Bulk loan chunk of {} records starting at line {} failed",
+                        chunk.size(), chunk.get(0).record(), e);
+                chunk.forEach(r -> chunkResults.add(BulkLoanResult.rejected(r.record(), "Chunk failed: " + e.getMessage())));
+            }
+        }
+
+        chunkResults.sort(Comparator.comparingLong(BulkLoanResult::record));
+        for (BulkLoanResult result : chunkResults) {
+            // writeValue(OutputStream) would close the response stream after the first record
+            results.write(resultWriter.writeValueAsBytes(result));
+            results.write('\n');
+        }
+        results.flush();
+
+        chunk.clear();
+        chunkResults.clear();
+    }
+}
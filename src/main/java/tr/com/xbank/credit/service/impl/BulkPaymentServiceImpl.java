@@ -0,0 +1,228 @@
+package tr.com.xbank.credit.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tr.com.xbank.credit.config.WorkerThreads;
+import tr.com.xbank.credit.dto.request.BulkPaymentRecord;
+import tr.com.xbank.credit.dto.request.PayLoanRequest;
+import tr.com.xbank.credit.dto.response.BulkPaymentResult;
+import tr.com.xbank.credit.service.BulkPaymentService;
+import tr.com.xbank.credit.service.LoanService;
+import tr.com.xbank.credit.service.lock.PaymentLock;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Settles a payment file of {@link PayLoanRequest} rows (CSV {@code loanId,amount} or NDJSON).
+ * Rows are hash partitioned by loan id and each partition is paid by a single worker, so every
+ * payment of a loan is applied in file order while partitions run in parallel. Each worker groups
+ * its rows by loan id and hands whole loans to {@link LoanService#payLoans} in chunks, one
+ * transaction each. A chunk that fails is retried loan by loan, so only the failing loan is
+ * rejected, and once a payment of a loan is rejected its later rows are skipped. The report lists
+ * one NDJSON {@link BulkPaymentResult} per row in file order once all partitions are done.
+ */
+@Slf4j
+@Service
+public class BulkPaymentServiceImpl implements BulkPaymentService {
+
+    private static final String CSV_HEADER = "loanId,amount";
+
+    private final LoanService loanService;
+    private final Validator validator;
+    private final ExecutorService workers;
+    private final ObjectReader requestReader;
+    private final ObjectWriter resultWriter;
+    private final int chunkSize;
+    private final int partitions;
+
+    public BulkPaymentServiceImpl(LoanService loanService,
+                                  Validator validator,
+                                  ObjectMapper objectMapper,
+                                  @Value("${app.loan.bulk.chunk-size:500}") int chunkSize,
+                                  @Value("${app.loan.bulk.payment-workers:0}") int workerCount,
+                                  @Value(WorkerThreads.VIRTUAL_THREADS_ENABLED) boolean virtualThreads) {
+        this.loanService = loanService;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(PayLoanRequest.class);
+        this.resultWriter = objectMapper.writerFor(BulkPaymentResult.class);
+        this.chunkSize = chunkSize;
+
+        int poolSize = workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+        this.workers = Executors.newFixedThreadPool(poolSize, WorkerThreads.factory("bulk-payment-", virtualThreads));
+        // a power of two, so partitions split on the same bits as the striped payment locks and never share a stripe
+        this.partitions = poolSize <= 1 ? 1 : Integer.highestOneBit(poolSize - 1) << 1;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    @Override
+    public void payLoans(InputStream records, Format format, OutputStream results) throws IOException {
+
+        List<List<BulkPaymentRecord>> partitioned = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            partitioned.add(new ArrayList<>());
+        }
+        List<BulkPaymentResult> report = new ArrayList<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(records, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (format == Format.CSV && lineNumber == 1 && isCsvHeader(line))) {
+                continue;
+            }
+
+            try {
+                PayLoanRequest request = parse(line, format);
+                validate(request);
+                partitioned.get(PaymentLock.spread(request.loanId()) & (partitions - 1))
+                        .add(new BulkPaymentRecord(lineNumber, request));
+            } catch (IllegalArgumentException e) {
+                report.add(BulkPaymentResult.rejected(lineNumber, null, e.getMessage()));
+            }
+        }
+
+        List<CompletableFuture<List<BulkPaymentResult>>> partitionResults = partitioned.stream()
+                .filter(partition -> !partition.isEmpty())
+                .map(partition -> CompletableFuture.supplyAsync(() -> payPartition(partition), workers))
+                .toList();
+        partitionResults.forEach(partitionResult -> report.addAll(partitionResult.join()));
+
+        report.sort(Comparator.comparingLong(BulkPaymentResult::record));
+        for (BulkPaymentResult result : report) {
+            results.write(resultWriter.writeValueAsBytes(result));
+            results.write('\n');
+        }
+        results.flush();
+    }
+
+    private List<BulkPaymentResult> payPartition(List<BulkPaymentRecord> partition) {
+
+        // grouping keeps the file order of the payments of each loan
+        Map<Long, List<BulkPaymentRecord>> recordsByLoan = partition.stream()
+                .collect(Collectors.groupingBy(r -> r.request().loanId(), TreeMap::new, Collectors.toList()));
+
+        List<BulkPaymentResult> results = new ArrayList<>(partition.size());
+        List<List<BulkPaymentRecord>> chunk = new ArrayList<>();
+        int chunkRecords = 0;
+
+        for (List<BulkPaymentRecord> loanRecords : recordsByLoan.values()) {
+            if (chunkRecords + loanRecords.size() > chunkSize && !chunk.isEmpty()) {
+                payChunk(chunk, results);
+                chunk.clear();
+                chunkRecords = 0;
+            }
+
+            if (loanRecords.size() > chunkSize) {
+                payLargeLoan(loanRecords, results);
+            } else {
+                chunk.add(loanRecords);
+                chunkRecords += loanRecords.size();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            payChunk(chunk, results);
+        }
+        return results;
+    }
+
+    /***
+     *  Private methods for payPartition method
+     ***/
+
+    private void payChunk(List<List<BulkPaymentRecord>> loans, List<BulkPaymentResult> results) {
+        List<BulkPaymentRecord> chunk = loans.stream().flatMap(List::stream).toList();
+        try {
+            results.addAll(loanService.payLoans(chunk));
+        } catch (RuntimeException e) {
+            if (loans.size() > 1) {
+                log.warn("Bulk payment chunk of {} loans failed, paying them one by one", loans.size(), e);
+                loans.forEach(loanRecords -> payChunk(List.of(loanRecords), results));
+                return;
+            }
+
+            log.warn("Bulk payment of loan {} failed", chunk.get(0).request().loanId(), e);
+            chunk.forEach(r -> results.add(
+                    BulkPaymentResult.rejected(r.record(), r.request().loanId(), "Payment failed: " + e.getMessage())));
+        }
+    }
+
+    // a loan with more rows than a chunk is paid in chunks of its own, stopping at the first rejection
+    private void payLargeLoan(List<BulkPaymentRecord> loanRecords, List<BulkPaymentResult> results) {
+        for (int from = 0; from < loanRecords.size(); from += chunkSize) {
+            int resultCount = results.size();
+            payChunk(List.of(loanRecords.subList(from, Math.min(from + chunkSize, loanRecords.size()))), results);
+
+            boolean rejected = results.subList(resultCount, results.size()).stream().anyMatch(r -> !r.success());
+            if (rejected) {
+                loanRecords.subList(Math.min(from + chunkSize, loanRecords.size()), loanRecords.size())
+                        .forEach(r -> results.add(BulkPaymentResult.skipped(r.record(), r.request().loanId())));
+                return;
+            }
+        }
+    }
+
+    private PayLoanRequest parse(String line, Format format) {
+        if (format == Format.NDJSON) {
+            try {
+                return requestReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed record: " + e.getOriginalMessage());
+            }
+        }
+
+        String[] columns = line.split(",", -1);
+        if (columns.length != 2) {
+            throw new IllegalArgumentException("Malformed record: expected " + CSV_HEADER);
+        }
+        try {
+            return new PayLoanRequest(Long.valueOf(columns[0].trim()), new BigDecimal(columns[1].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed record: expected " + CSV_HEADER);
+        }
+    }
+
+    private void validate(PayLoanRequest request) {
+        Set<ConstraintViolation<PayLoanRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private static boolean isCsvHeader(String line) {
+        return line.replace(" ", "").equalsIgnoreCase(CSV_HEADER);
+    }
+}
@@ -1,43 +1,111 @@
 package tr.com.xbank.credit.service.impl;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import tr.com.xbank.credit.dto.request.CustomerRegistrationRequest;
+import tr.com.xbank.credit.dto.request.LoginRequest;
+import tr.com.xbank.credit.dto.response.CustomerDto;
+import tr.com.xbank.credit.dto.response.TokenResponse;
 import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.CustomerCredit;
+import tr.com.xbank.credit.repository.CustomerCreditRepository;
 import tr.com.xbank.credit.repository.CustomerRepository;
+import tr.com.xbank.credit.repository.CustomerRepository.CustomerIdentity;
+import tr.com.xbank.credit.security.PasswordHasher;
+import tr.com.xbank.credit.security.TokenService;
+import tr.com.xbank.credit.security.UserPrincipal;
 import tr.com.xbank.credit.service.CustomerService;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
 public class CustomerServiceImpl implements CustomerService {
 
+    private static final String USERNAME_CONSTRAINT = "uk_customers_username";
+    private static final String EMAIL_CONSTRAINT = "uk_customers_email";
+
     private final CustomerRepository customerRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final CustomerCreditRepository customerCreditRepository;
+    private final PasswordHasher passwordHasher;
+    private final TransactionTemplate transactionTemplate;
+    private final AuthenticationManager authenticationManager;
+    private final TokenService tokenService;
 
+    // the password is hashed on the hashing pool before the transaction opens, so no connection waits on BCrypt
     @Override
-    @Transactional
-    public Customer registerCustomer(CustomerRegistrationRequest request) {
-        if (customerRepository.findByUsername(request.username()).isPresent()) {
-            throw new IllegalArgumentException("Username already exists");
-        }
+    public CustomerDto registerCustomer(CustomerRegistrationRequest request) {
 
-        if (customerRepository.findByEmail(request.email()).isPresent()) {
-            throw new IllegalArgumentException("Email already exists");
-        }
+        validateUnique(customerRepository.findByUsernameOrEmail(request.username(), request.email()), request);
 
         Customer customer = new Customer();
         customer.setName(request.name());
         customer.setSurname(request.surname());
         customer.setUsername(request.username());
-        customer.setPassword(passwordEncoder.encode(request.password()));
+        customer.setPassword(passwordHasher.encode(request.password()));
         customer.setEmail(request.email());
         customer.setCreditLimit(BigDecimal.ZERO);
-        customer.setUsedCreditLimit(BigDecimal.ZERO);
 
-        return customerRepository.save(customer);
+        try {
+            return transactionTemplate.execute(status -> saveCustomer(customer));
+        } catch (DataIntegrityViolationException e) {
+            // registered concurrently after the check
+            throw new IllegalArgumentException(duplicateMessage(e));
+        }
+    }
+
+    @Override
+    public TokenResponse login(LoginRequest request) {
+        if (!tokenService.isEnabled()) {
+            throw new IllegalArgumentException("Token authentication is not enabled");
+        }
+
+        Authentication authentication = authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(request.username(), request.password()));
+
+        return tokenService.issue((UserPrincipal) authentication.getPrincipal());
+    }
+
+    /***
+     *  Private methods for registerCustomer method
+     ***/
+    private void validateUnique(List<CustomerIdentity> conflicts, CustomerRegistrationRequest request) {
+        for (CustomerIdentity conflict : conflicts) {
+            if (conflict.getUsername().equals(request.username())) {
+                throw new IllegalArgumentException("Username already exists");
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            throw new IllegalArgumentException("Email already exists");
+        }
+    }
+
+    // flushed here so a unique constraint violation surfaces before the credit row is written
+    private CustomerDto saveCustomer(Customer customer) {
+        Customer saved = customerRepository.saveAndFlush(customer);
+        CustomerCredit credit = customerCreditRepository.save(new CustomerCredit(saved.getId()));
+        return CustomerDto.mapCustomerToDto(saved, credit);
+    }
+
+    private static String duplicateMessage(DataIntegrityViolationException e) {
+        String constraint = e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                ? violation.getConstraintName().toLowerCase(Locale.ROOT)
+                : "";
+        if (constraint.contains(USERNAME_CONSTRAINT)) {
+            return "Username already exists";
+        }
+        if (constraint.contains(EMAIL_CONSTRAINT)) {
+            return "Email already exists";
+        }
+        return "Username or email already exists";
     }
 }
@@ -1,77 +1,187 @@
 package tr.com.xbank.credit.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
+import tr.com.xbank.credit.dto.request.BulkLoanRecord;
+import tr.com.xbank.credit.dto.request.BulkPaymentRecord;
 import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.dto.request.LoanFilter;
 import tr.com.xbank.credit.dto.request.PayLoanRequest;
+import tr.com.xbank.credit.dto.response.BulkLoanResult;
+import tr.com.xbank.credit.dto.response.BulkPaymentResult;
 import tr.com.xbank.credit.dto.response.InstallmentDto;
 import tr.com.xbank.credit.dto.response.LoanDto;
+import tr.com.xbank.credit.dto.response.LoanPage;
 import tr.com.xbank.credit.dto.response.PaymentResult;
+import tr.com.xbank.credit.dto.response.PayoffQuote;
 import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.CustomerCredit;
 import tr.com.xbank.credit.entity.Loan;
 import tr.com.xbank.credit.entity.LoanInstallment;
 import tr.com.xbank.credit.exception.ResourceNotFoundException;
+import tr.com.xbank.credit.repository.CustomerCreditRepository;
 import tr.com.xbank.credit.repository.CustomerRepository;
 import tr.com.xbank.credit.repository.LoanInstallmentRepository;
 import tr.com.xbank.credit.repository.LoanRepository;
 import tr.com.xbank.credit.service.LoanService;
+import tr.com.xbank.credit.service.cache.InstallmentScheduleCache;
+import tr.com.xbank.credit.service.lock.PaymentLock;
+import tr.com.xbank.credit.service.metrics.LoanMetrics;
+import tr.com.xbank.credit.service.metrics.LoanMetrics.Operation;
+import tr.com.xbank.credit.service.metrics.LoanMetrics.Phase;
+import tr.com.xbank.credit.service.metrics.LoanMetrics.Rejection;
+import tr.com.xbank.credit.util.AdjustmentTable;
+import tr.com.xbank.credit.util.MoneyMath;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class LoanServiceImpl implements LoanService {
 
     private final CustomerRepository customerRepository;
+    private final CustomerCreditRepository customerCreditRepository;
     private final LoanRepository loanRepository;
     private final LoanInstallmentRepository loanInstallmentRepository;
+    private final PaymentLock paymentLock;
+    private final LoanMetrics loanMetrics;
+    private final InstallmentScheduleCache installmentScheduleCache;
 
     @Override
     @Transactional
+    @Retryable(
+        retryFor = ConcurrencyFailureException.class,
+        maxAttemptsExpression = "${app.loan.credit-reservation.max-attempts:3}",
+        backoff = @Backoff(delayExpression = "${app.loan.credit-reservation.backoff-ms:20}", multiplier = 2, random = true)
+    )
     public LoanDto createLoan(CreateLoanRequest request) {
 
-        Customer customer = findAndValidateCustomer(request.customerId());
-        validateCustomerCreditLimit(customer, request.amount());
+        loanMetrics.timeTransaction(Operation.CREATE);
 
-        Loan loan = createAndSaveLoan(customer, request);
+        Customer customer = loanMetrics.phase(Phase.CUSTOMER_LOOKUP, () -> findAndValidateCustomer(request.customerId()));
+        loanMetrics.phase(Phase.CREDIT_RESERVATION, () -> reserveCustomerCreditLimit(customer, request.amount()));
 
-        BigDecimal totalAmount = calculateTotalLoanAmount(request.amount(), request.interestRate());
-
-        createAndSaveInstallments(loan, totalAmount, request.numberOfInstallments());
+        Loan loan = buildLoan(customer, request);
+        List<LoanInstallment> installments =
+                loanMetrics.phase(Phase.INSTALLMENT_GENERATION, () -> generateInstallments(loan, request));
 
-        updateCustomerCreditLimit(customer, request.amount());
+        // saved once the schedule has set its balance, so the insert carries it and no update follows
+        Loan savedLoan = loanMetrics.phase(Phase.LOAN_SAVE, () -> loanRepository.save(loan));
+        loanMetrics.phase(Phase.INSTALLMENT_SAVE, () -> loanInstallmentRepository.saveAll(installments));
+        installmentScheduleCache.evictAfterCommit(savedLoan.getId());
 
-        return LoanDto.mapLoanToDto(loan);
+        return LoanDto.mapLoanToDto(savedLoan);
     }
 
     @Override
-    public List<LoanDto> getLoansByCustomerId(Long customerId) {
+    @Transactional
+    @Retryable(
+        retryFor = ConcurrencyFailureException.class,
+        maxAttemptsExpression = "${app.loan.credit-reservation.max-attempts:3}",
+        backoff = @Backoff(delayExpression = "${app.loan.credit-reservation.backoff-ms:20}", multiplier = 2, random = true)
+    )
+    public List<BulkLoanResult> createLoans(List<BulkLoanRecord> records) {
+
+        loanMetrics.timeTransaction(Operation.BULK_CREATE);
 
-        List<LoanDto> loans = loanRepository.findByCustomerId(customerId)
+        Map<Long, List<BulkLoanRecord>> recordsByCustomer = records.stream()
+                .collect(Collectors.groupingBy(r -> r.request().customerId(), LinkedHashMap::new, Collectors.toList()));
+
+        Map<Long, Customer> customers = customerRepository.findAllById(recordsByCustomer.keySet())
+                .stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        Map<Long, BigDecimal> usedCreditLimits = customerCreditRepository.findAllById(customers.keySet())
                 .stream()
-                .map(LoanDto::mapLoanToDto)
-                .toList();
+                .collect(Collectors.toMap(CustomerCredit::getCustomerId, CustomerCredit::getUsedCreditLimit));
+
+        List<BulkLoanResult> results = new ArrayList<>(records.size());
+        Map<BulkLoanRecord, Loan> acceptedLoans = new LinkedHashMap<>();
+        List<LoanInstallment> installments = new ArrayList<>();
+
+        recordsByCustomer.forEach((customerId, customerRecords) -> {
+            Customer customer = customers.get(customerId);
+            if (customer == null) {
+                String error = new ResourceNotFoundException("Customer", "id", customerId).getMessage();
+                customerRecords.forEach(r -> {
+                    loanMetrics.rejected(Rejection.CUSTOMER_NOT_FOUND);
+                    results.add(BulkLoanResult.rejected(r.record(), error));
+                });
+                return;
+            }
+
+            BigDecimal usedCreditLimit = usedCreditLimits.get(customerId);
+            if (usedCreditLimit == null) {
+                String error = missingCreditRecord(customerId);
+                customerRecords.forEach(r -> results.add(BulkLoanResult.rejected(r.record(), error)));
+                return;
+            }
+
+            List<BulkLoanRecord> accepted = reserveCustomerCreditLimit(customer, usedCreditLimit, customerRecords, results);
+
+            for (BulkLoanRecord record : accepted) {
+                Loan loan = buildLoan(customer, record.request());
+                installments.addAll(generateInstallments(loan, record.request()));
+                acceptedLoans.put(record, loan);
+            }
+        });
+
+        loanRepository.saveAll(acceptedLoans.values());
+        loanInstallmentRepository.saveAll(installments);
+        installmentScheduleCache.evictAfterCommit(acceptedLoans.values().stream().map(Loan::getId).toList());
+
+        acceptedLoans.forEach((record, loan) -> results.add(BulkLoanResult.created(record.record(), loan.getId())));
+        results.sort(Comparator.comparingLong(BulkLoanResult::record));
+
+        return results;
+    }
+
+    @Override
+    public LoanPage getLoansByCustomerId(Long customerId, LoanFilter filter) {
+
+        filter.validateCreationDateRange();
+        int limit = filter.limitOrDefault();
 
-        if (CollectionUtils.isEmpty(loans)) {
+        // one extra row tells whether another page follows without a count query
+        List<LoanDto> loans = loanRepository.findPageByCustomerId(
+                customerId,
+                filter.afterOrZero(),
+                filter.isPaid(),
+                filter.createdFromStart(),
+                filter.createdToEnd(),
+                Limit.of(limit + 1));
+
+        if (CollectionUtils.isEmpty(loans) && filter.after() == null) {
             throw new ResourceNotFoundException("Loan", "customerId", customerId);
         }
 
-        return loans;
+        if (loans.size() > limit) {
+            List<LoanDto> page = loans.subList(0, limit);
+            return new LoanPage(page, page.get(limit - 1).id());
+        }
+
+        return new LoanPage(loans, null);
     }
 
     @Override
     public List<InstallmentDto> getLoanInstallments(Long loanId) {
 
-        List<InstallmentDto> installments = loanInstallmentRepository.findByLoanId(loanId)
-                .stream()
-                .map(InstallmentDto::mapInstallmentToDto)
-                .toList();
+        List<InstallmentDto> installments =
+                installmentScheduleCache.get(loanId, loanInstallmentRepository::findInstallmentDtosByLoanId);
 
         if (CollectionUtils.isEmpty(installments)) {
             throw new ResourceNotFoundException("Installments", "loanId", loanId);
@@ -80,18 +190,130 @@ public class LoanServiceImpl implements LoanService {
         return installments;
     }
 
+    // read from the cached schedule without a transaction or lock, with the adjustments a payment would apply today
+    @Override
+    public PayoffQuote getPayoffQuote(Long loanId) {
+
+        AdjustmentTable adjustments = AdjustmentTable.today();
+        LocalDate maxDueDate = adjustments.date().plusMonths(3);
+        List<PayoffQuote.Installment> quoted = new ArrayList<>();
+        long cumulativeUnits = 0;
+
+        for (InstallmentDto installment : getLoanInstallments(loanId)) {
+
+            if (installment.isPaid() || installment.dueDate().isAfter(maxDueDate)) {
+                continue;
+            }
+
+            long daysUntilDue = adjustments.daysUntilDue(installment.dueDate());
+            long adjustedUnits = adjustments.adjustedUnits(MoneyMath.toUnits(installment.amount()), daysUntilDue);
+            cumulativeUnits = Math.addExact(cumulativeUnits, adjustedUnits);
+
+            quoted.add(new PayoffQuote.Installment(installment.id(), installment.dueDate(), installment.amount(),
+                    daysUntilDue, MoneyMath.toAdjustedAmount(installment.amount(), adjustedUnits, daysUntilDue),
+                    MoneyMath.toAmount(cumulativeUnits, MoneyMath.SCALE)));
+        }
+
+        if (quoted.isEmpty()) {
+            throw new ResourceNotFoundException("No eligible installments found for payment processing");
+        }
+
+        return new PayoffQuote(loanId, adjustments.date(), quoted.size(),
+                quoted.get(quoted.size() - 1).cumulativePayable(), quoted);
+    }
+
     @Override
     @Transactional
     public PaymentResult payLoanInstallments(PayLoanRequest request) {
 
-        Loan loan = findAndValidateLoan(request.loanId());
+        loanMetrics.timeTransaction(Operation.PAY);
+
+        loanMetrics.phase(Phase.PAYMENT_LOCK, () -> paymentLock.acquire(request.loanId()));
 
-        List<LoanInstallment> eligibleInstallments = findAndValidateEligibleInstallments(loan.getId());
+        Loan loan = loanMetrics.phase(Phase.LOAN_LOOKUP, () -> findAndValidateLoan(request.loanId()));
 
-        PaymentResult result = processPayment(eligibleInstallments, request.amount(), loan.getId());
-        updateLoanAndCustomerStatus(loan, result.isLoanFullyPaid());
+        List<LoanInstallment> eligibleInstallments =
+                loanMetrics.phase(Phase.INSTALLMENT_LOOKUP, () -> findAndValidateEligibleInstallments(loan.getId()));
 
-        return result;
+        List<LoanInstallment> paidInstallments =
+                loanMetrics.phase(Phase.PAYMENT_PROCESSING, () -> processPayment(loan, eligibleInstallments, request.amount()));
+        loanMetrics.installmentsPaid(Operation.PAY, paidInstallments.size());
+        installmentScheduleCache.evictAfterCommit(loan.getId());
+
+        boolean isLoanFullyPaid = loanMetrics.phase(Phase.FULLY_PAID_CHECK, () -> closeLoanIfFullyPaid(loan));
+
+        return new PaymentResult(paidInstallments.size(), sumPaidAmounts(paidInstallments), isLoanFullyPaid);
+    }
+
+    @Override
+    @Transactional
+    public List<BulkPaymentResult> payLoans(List<BulkPaymentRecord> records) {
+
+        loanMetrics.timeTransaction(Operation.BULK_PAY);
+
+        Map<Long, List<BulkPaymentRecord>> recordsByLoan = records.stream()
+                .collect(Collectors.groupingBy(r -> r.request().loanId(), LinkedHashMap::new, Collectors.toList()));
+        Set<Long> loanIds = recordsByLoan.keySet();
+
+        paymentLock.acquireAll(loanIds);
+
+        Map<Long, Loan> loans = loanRepository.findAllById(loanIds)
+                .stream()
+                .collect(Collectors.toMap(Loan::getId, Function.identity()));
+        Map<Long, List<LoanInstallment>> eligibleInstallments = loanInstallmentRepository
+                .findUnpaidInstallmentsByLoanIdInAndMaxDueDate(loanIds, LocalDate.now().plusMonths(3))
+                .stream()
+                .collect(Collectors.groupingBy(i -> i.getLoan().getId(), Collectors.toCollection(ArrayList::new)));
+
+        List<BulkPaymentResult> results = new ArrayList<>(records.size());
+        List<LoanInstallment> paidInstallments = new ArrayList<>();
+        List<Loan> paidLoans = new ArrayList<>();
+
+        recordsByLoan.forEach((loanId, loanRecords) -> {
+            Loan loan = loans.get(loanId);
+            List<LoanInstallment> installments = eligibleInstallments.getOrDefault(loanId, new ArrayList<>());
+
+            // records of one loan are applied in file order against the installments left by the previous one
+            boolean rejected = false;
+            for (BulkPaymentRecord record : loanRecords) {
+                if (rejected) {
+                    results.add(BulkPaymentResult.skipped(record.record(), loanId));
+                    continue;
+                }
+                try {
+                    validateLoan(loanId, loan);
+                    validateEligibleInstallments(installments);
+
+                    List<LoanInstallment> paid = applyPayment(installments, record.request().amount());
+                    validatePaymentProcessed(paid.size());
+
+                    installments.subList(0, paid.size()).clear();
+                    updateLoanBalance(loan, paid, installments);
+                    paidInstallments.addAll(paid);
+                    loanMetrics.installmentsPaid(Operation.BULK_PAY, paid.size());
+
+                    boolean isLoanFullyPaid = checkIfLoanFullyPaid(loan);
+                    if (isLoanFullyPaid) {
+                        loan.setPaid(true);
+                        paidLoans.add(loan);
+                    }
+
+                    results.add(BulkPaymentResult.paid(record.record(), loanId,
+                            new PaymentResult(paid.size(), sumPaidAmounts(paid), isLoanFullyPaid)));
+                } catch (ResourceNotFoundException | IllegalArgumentException e) {
+                    results.add(BulkPaymentResult.rejected(record.record(), loanId, e.getMessage()));
+                    rejected = true;
+                }
+            }
+        });
+
+        loanInstallmentRepository.saveAll(paidInstallments);
+        installmentScheduleCache.evictAfterCommit(paidInstallments.stream().map(i -> i.getLoan().getId()).toList());
+        releaseCreditLimits(paidLoans);
+
+        results.sort(Comparator.comparingLong(BulkPaymentResult::record));
+
+        return results;
     }
 
 
@@ -100,46 +322,52 @@ public class LoanServiceImpl implements LoanService {
     ***/
     private Customer findAndValidateCustomer(Long customerId) {
         return customerRepository.findById(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", customerId));
+                .orElseThrow(() -> {
+                    loanMetrics.rejected(Rejection.CUSTOMER_NOT_FOUND);
+                    return new ResourceNotFoundException("Customer", "id", customerId);
+                });
     }
 
-    private BigDecimal calculateTotalLoanAmount(BigDecimal principal, BigDecimal interestRate) {
-        return principal.multiply(BigDecimal.ONE.add(interestRate));
-    }
-
-    private void validateCustomerCreditLimit(Customer customer, BigDecimal requiredAmount) {
-        BigDecimal availableCredit = customer.getCreditLimit().subtract(customer.getUsedCreditLimit());
-        if (availableCredit.compareTo(requiredAmount) < 0) {
+    // the conditional update checks and reserves the limit in one statement, so no read of the used credit is needed
+    private void reserveCustomerCreditLimit(Customer customer, BigDecimal amount) {
+        if (customerCreditRepository.reserveCreditLimit(customer.getId(), amount) == 0) {
+            // a missing credit row updates nothing either, that is a data error and not a limit rejection
+            if (!customerCreditRepository.existsById(customer.getId())) {
+                throw new IllegalStateException(missingCreditRecord(customer.getId()));
+            }
+            loanMetrics.rejected(Rejection.INSUFFICIENT_CREDIT_LIMIT);
             throw new IllegalArgumentException("Insufficient credit limit");
         }
     }
 
-    private Loan createAndSaveLoan(Customer customer, CreateLoanRequest request) {
+    private static String missingCreditRecord(Long customerId) {
+        return "Credit record of customer " + customerId + " is missing";
+    }
+
+    private Loan buildLoan(Customer customer, CreateLoanRequest request) {
         Loan loan = new Loan();
         loan.setCustomer(customer);
         loan.setLoanAmount(request.amount());
         loan.setInterestRate(request.interestRate());
         loan.setNumberOfInstallment(request.numberOfInstallments());
-        return loanRepository.save(loan);
-    }
-
-    private void createAndSaveInstallments(Loan loan, BigDecimal totalAmount, int numberOfInstallments) {
-        BigDecimal installmentAmount = calculateInstallmentAmount(totalAmount, numberOfInstallments);
-        List<LoanInstallment> installments = generateInstallments(loan, installmentAmount, numberOfInstallments);
-        loanInstallmentRepository.saveAll(installments);
+        return loan;
     }
 
-    private BigDecimal calculateInstallmentAmount(BigDecimal totalAmount, int numberOfInstallments) {
-        return totalAmount.divide(BigDecimal.valueOf(numberOfInstallments), 2, RoundingMode.HALF_UP);
-    }
+    private List<LoanInstallment> generateInstallments(Loan loan, CreateLoanRequest request) {
+        int numberOfInstallments = request.numberOfInstallments();
+        BigDecimal installmentAmount =
+                MoneyMath.installmentAmount(request.amount(), request.interestRate(), numberOfInstallments);
 
-    private List<LoanInstallment> generateInstallments(Loan loan, BigDecimal installmentAmount, int numberOfInstallments) {
         List<LoanInstallment> installments = new ArrayList<>();
         LocalDate firstDueDate = LocalDate.now().withDayOfMonth(1).plusMonths(1);
 
         for (int i = 0; i < numberOfInstallments; i++) {
             installments.add(createInstallment(loan, installmentAmount, firstDueDate.plusMonths(i)));
         }
+
+        loan.setUnpaidInstallmentCount(numberOfInstallments);
+        loan.setOutstandingAmount(installmentAmount.multiply(BigDecimal.valueOf(numberOfInstallments)));
+        loan.setNextDueDate(firstDueDate);
         return installments;
     }
 
@@ -151,9 +379,38 @@ public class LoanServiceImpl implements LoanService {
         return installment;
     }
 
-    private void updateCustomerCreditLimit(Customer customer, BigDecimal amount) {
-        customer.setUsedCreditLimit(customer.getUsedCreditLimit().add(amount));
-        customerRepository.save(customer);
+
+    /***
+     *  Private methods for createLoans method
+     ***/
+    // accepts records in file order while they fit the available limit, then reserves their sum with one update
+    private List<BulkLoanRecord> reserveCustomerCreditLimit(Customer customer, BigDecimal usedCreditLimit,
+                                                            List<BulkLoanRecord> records, List<BulkLoanResult> results) {
+        BigDecimal availableCredit = customer.getCreditLimit().subtract(usedCreditLimit);
+        BigDecimal reservedAmount = BigDecimal.ZERO;
+        List<BulkLoanRecord> accepted = new ArrayList<>();
+
+        for (BulkLoanRecord record : records) {
+            BigDecimal amount = record.request().amount();
+            if (reservedAmount.add(amount).compareTo(availableCredit) <= 0) {
+                reservedAmount = reservedAmount.add(amount);
+                accepted.add(record);
+            } else {
+                loanMetrics.rejected(Rejection.INSUFFICIENT_CREDIT_LIMIT);
+                results.add(BulkLoanResult.rejected(record.record(), "Insufficient credit limit"));
+            }
+        }
+
+        if (!accepted.isEmpty() && customerCreditRepository.reserveCreditLimit(customer.getId(), reservedAmount) == 0) {
+            // the limit changed since the used credit was read, reject the group rather than guess a subset
+            accepted.forEach(r -> {
+                loanMetrics.rejected(Rejection.INSUFFICIENT_CREDIT_LIMIT);
+                results.add(BulkLoanResult.rejected(r.record(), "Insufficient credit limit"));
+            });
+            return List.of();
+        }
+
+        return accepted;
     }
 
 
@@ -161,11 +418,18 @@ public class LoanServiceImpl implements LoanService {
      *  Private methods for payLoanInstallments method
      ***/
     private Loan findAndValidateLoan(Long loanId) {
+        return validateLoan(loanId, loanRepository.findById(loanId).orElse(null));
+    }
 
-        Loan loan = loanRepository.findById(loanId)
-                .orElseThrow(() -> new ResourceNotFoundException("Loan", "id", loanId));
+    private Loan validateLoan(Long loanId, Loan loan) {
+
+        if (loan == null) {
+            loanMetrics.rejected(Rejection.LOAN_NOT_FOUND);
+            throw new ResourceNotFoundException("Loan", "id", loanId);
+        }
 
         if (loan.isPaid()) {
+            loanMetrics.rejected(Rejection.LOAN_ALREADY_PAID);
             throw new IllegalArgumentException("Loan is already fully paid");
         }
 
@@ -178,72 +442,70 @@ public class LoanServiceImpl implements LoanService {
         List<LoanInstallment> installments =
                 loanInstallmentRepository.findUnpaidInstallmentsByLoanIdAndMaxDueDate(loanId, maxDueDate);
 
+        return validateEligibleInstallments(installments);
+    }
+
+    private List<LoanInstallment> validateEligibleInstallments(List<LoanInstallment> installments) {
+
         if (installments == null || installments.isEmpty()) {
+            loanMetrics.rejected(Rejection.NO_ELIGIBLE_INSTALLMENTS);
             throw new ResourceNotFoundException("No eligible installments found for payment processing");
         }
 
         return installments;
     }
 
-    private PaymentResult processPayment(List<LoanInstallment> installments, BigDecimal paymentAmount, Long loanId) {
+    private List<LoanInstallment> processPayment(Loan loan, List<LoanInstallment> installments, BigDecimal paymentAmount) {
 
-        BigDecimal remainingAmount = paymentAmount;
-        int installmentsPaid = 0;
-        BigDecimal amountSpent = BigDecimal.ZERO;
+        List<LoanInstallment> updatedInstallments = applyPayment(installments, paymentAmount);
+
+        validatePaymentProcessed(updatedInstallments.size());
+
+        loanInstallmentRepository.saveAll(updatedInstallments);
+        updateLoanBalance(loan, updatedInstallments,
+                installments.subList(updatedInstallments.size(), installments.size()));
+
+        return updatedInstallments;
+    }
+
+    // pays installments in due date order while the remaining amount covers them, nothing is written here
+    private List<LoanInstallment> applyPayment(List<LoanInstallment> installments, BigDecimal paymentAmount) {
+
+        AdjustmentTable adjustments = AdjustmentTable.today();
+        long remainingUnits = MoneyMath.toUnitsFloor(paymentAmount);
         List<LoanInstallment> updatedInstallments = new ArrayList<>();
 
         for (LoanInstallment installment : installments) {
 
-            BigDecimal adjustedAmount = calculateAdjustedAmount(installment);
+            long daysUntilDue = adjustments.daysUntilDue(installment.getDueDate());
+            long adjustedUnits = adjustments.adjustedUnits(MoneyMath.toUnits(installment.getAmount()), daysUntilDue);
 
-            if (remainingAmount.compareTo(adjustedAmount) >= 0) {
+            if (remainingUnits >= adjustedUnits) {
 
-                updatePaidInstallment(installment, adjustedAmount);
+                updatePaidInstallment(installment,
+                        MoneyMath.toAdjustedAmount(installment.getAmount(), adjustedUnits, daysUntilDue));
                 updatedInstallments.add(installment);
 
-                remainingAmount = remainingAmount.subtract(adjustedAmount);
-                amountSpent = amountSpent.add(adjustedAmount);
-                installmentsPaid++;
+                remainingUnits -= adjustedUnits;
             } else {
                 break;
             }
         }
 
-        validatePaymentProcessed(installmentsPaid);
-
-        loanInstallmentRepository.saveAll(updatedInstallments);
-        boolean isLoanFullyPaid = checkIfLoanFullyPaid(loanId);
-
-        return new PaymentResult(installmentsPaid, amountSpent, isLoanFullyPaid);
+        return updatedInstallments;
     }
 
-    private BigDecimal calculateAdjustedAmount(LoanInstallment installment) {
-        LocalDate today = LocalDate.now();
-        LocalDate dueDate = installment.getDueDate();
-        long daysDifference = java.time.temporal.ChronoUnit.DAYS.between(today, dueDate);
-
-        BigDecimal baseAmount = installment.getAmount();
-        BigDecimal adjustmentRate = BigDecimal.valueOf(0.001);
-
-        if (daysDifference > 0) {
-            // Early payment discount
-            BigDecimal discount = baseAmount
-                    .multiply(adjustmentRate)
-                    .multiply(BigDecimal.valueOf(daysDifference));
-            return baseAmount.subtract(discount);
-        } else if (daysDifference < 0) {
-            // Late payment penalty
-            BigDecimal penalty = baseAmount
-                    .multiply(adjustmentRate)
-                    .multiply(BigDecimal.valueOf(Math.abs(daysDifference)));
-            return baseAmount.add(penalty);
+    private BigDecimal sumPaidAmounts(List<LoanInstallment> installments) {
+        BigDecimal amountSpent = BigDecimal.ZERO;
+        for (LoanInstallment installment : installments) {
+            amountSpent = amountSpent.add(installment.getPaidAmount());
         }
-
-        return baseAmount;
+        return amountSpent;
     }
 
     private void validatePaymentProcessed(int installmentsPaid) {
         if (installmentsPaid == 0) {
+            loanMetrics.rejected(Rejection.INSUFFICIENT_PAYMENT);
             throw new IllegalArgumentException("Payment amount is insufficient for any installment");
         }
     }
@@ -254,8 +516,34 @@ public class LoanServiceImpl implements LoanService {
         installment.setPaid(true);
     }
 
-    private boolean checkIfLoanFullyPaid(Long loanId) {
-        return loanInstallmentRepository.countUnpaidInstallmentsByLoanId(loanId) == 0;
+    // paid are the earliest unpaid installments in due date order, remaining the loaded unpaid ones after them
+    private void updateLoanBalance(Loan loan, List<LoanInstallment> paid, List<LoanInstallment> remaining) {
+        BigDecimal paidAmount = BigDecimal.ZERO;
+        for (LoanInstallment installment : paid) {
+            paidAmount = paidAmount.add(installment.getAmount());
+        }
+
+        loan.setUnpaidInstallmentCount(loan.getUnpaidInstallmentCount() - paid.size());
+        loan.setOutstandingAmount(loan.getOutstandingAmount().subtract(paidAmount));
+
+        if (loan.getUnpaidInstallmentCount() == 0) {
+            loan.setNextDueDate(null);
+        } else if (!remaining.isEmpty()) {
+            loan.setNextDueDate(remaining.get(0).getDueDate());
+        } else {
+            // every loaded installment was paid, installments fall due monthly so the next one follows the last
+            loan.setNextDueDate(paid.get(paid.size() - 1).getDueDate().plusMonths(1));
+        }
+    }
+
+    private boolean closeLoanIfFullyPaid(Loan loan) {
+        boolean isFullyPaid = checkIfLoanFullyPaid(loan);
+        updateLoanAndCustomerStatus(loan, isFullyPaid);
+        return isFullyPaid;
+    }
+
+    private boolean checkIfLoanFullyPaid(Loan loan) {
+        return loan.getUnpaidInstallmentCount() == 0;
     }
 
     private void updateLoanAndCustomerStatus(Loan loan, boolean isFullyPaid) {
@@ -263,9 +551,17 @@ public class LoanServiceImpl implements LoanService {
             loan.setPaid(true);
             loanRepository.save(loan);
 
-            Customer customer = loan.getCustomer();
-            customer.setUsedCreditLimit(customer.getUsedCreditLimit().subtract(loan.getLoanAmount()));
-            customerRepository.save(customer);
+            customerCreditRepository.releaseCreditLimit(loan.getCustomer().getId(), loan.getLoanAmount());
         }
     }
+
+    // one release per customer, however many of their loans the batch paid off
+    private void releaseCreditLimits(List<Loan> paidLoans) {
+        loanRepository.saveAll(paidLoans);
+
+        paidLoans.stream()
+                .collect(Collectors.groupingBy(loan -> loan.getCustomer().getId(),
+                        Collectors.reducing(BigDecimal.ZERO, Loan::getLoanAmount, BigDecimal::add)))
+                .forEach(customerCreditRepository::releaseCreditLimit);
+    }
 }
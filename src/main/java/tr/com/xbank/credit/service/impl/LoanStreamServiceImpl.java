@@ -0,0 +1,118 @@
+package tr.com.xbank.credit.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tr.com.xbank.credit.dto.ApiResponse;
+import tr.com.xbank.credit.dto.ApiResponseSerializer;
+import tr.com.xbank.credit.dto.request.LoanFilter;
+import tr.com.xbank.credit.dto.response.InstallmentDto;
+import tr.com.xbank.credit.dto.response.LoanDto;
+import tr.com.xbank.credit.exception.ResourceNotFoundException;
+import tr.com.xbank.credit.repository.LoanInstallmentRepository;
+import tr.com.xbank.credit.repository.LoanRepository;
+import tr.com.xbank.credit.service.LoanStreamService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes loan and installment listings as they come off a database cursor, either inside the usual
+ * {@link ApiResponse} envelope or as NDJSON, one element per line. Only the rows in the fetch and the
+ * output buffers are held in memory. Nothing is written before the first row, so an empty listing can
+ * still be answered 404; an error after that cuts the response short.
+ */
+@Service
+public class LoanStreamServiceImpl implements LoanStreamService {
+
+    private final LoanRepository loanRepository;
+    private final LoanInstallmentRepository loanInstallmentRepository;
+    private final ObjectWriter loanWriter;
+    private final ObjectWriter installmentWriter;
+
+    public LoanStreamServiceImpl(LoanRepository loanRepository,
+                                 LoanInstallmentRepository loanInstallmentRepository,
+                                 ObjectMapper objectMapper) {
+        this.loanRepository = loanRepository;
+        this.loanInstallmentRepository = loanInstallmentRepository;
+        // flushing after every element would send each one in its own chunk
+        this.loanWriter = objectMapper.writerFor(LoanDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.installmentWriter = objectMapper.writerFor(InstallmentDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeLoansByCustomerId(Long customerId, LoanFilter filter, Format format, String path,
+                                       OutputStream out) throws IOException {
+
+        filter.validateCreationDateRange();
+
+        try (Stream<LoanDto> loans = loanRepository.streamByCustomerId(
+                customerId,
+                filter.afterOrZero(),
+                filter.isPaid(),
+                filter.createdFromStart(),
+                filter.createdToEnd())) {
+
+            // like the paged listing, only the first page of a customer without loans is not found
+            write(loans.iterator(), loanWriter, format, path, out,
+                    filter.after() == null ? () -> new ResourceNotFoundException("Loan", "customerId", customerId) : null);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeLoanInstallments(Long loanId, Format format, String path, OutputStream out) throws IOException {
+
+        try (Stream<InstallmentDto> installments = loanInstallmentRepository.streamInstallmentDtosByLoanId(loanId)) {
+            write(installments.iterator(), installmentWriter, format, path, out,
+                    () -> new ResourceNotFoundException("Installments", "loanId", loanId));
+        }
+    }
+
+    private <T> void write(Iterator<T> elements, ObjectWriter elementWriter, Format format, String path,
+                           OutputStream out, Supplier<ResourceNotFoundException> notFound) throws IOException {
+
+        if (!elements.hasNext() && notFound != null) {
+            throw notFound.get();
+        }
+
+        try (JsonGenerator gen = elementWriter.createGenerator(out)) {
+            // the response stream is closed by the container
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.setRootValueSeparator(null);
+
+            ApiResponse<?> envelope = ApiResponse.success(null, path);
+            if (format == Format.JSON) {
+                ApiResponseSerializer.writeHead(envelope, gen);
+                gen.writeStartArray();
+            }
+
+            boolean first = true;
+            while (elements.hasNext()) {
+                elementWriter.writeValue(gen, elements.next());
+                if (format == Format.NDJSON) {
+                    gen.writeRaw('\n');
+                }
+                // the first element goes out at once, the rest as the buffers fill
+                if (first) {
+                    gen.flush();
+                    first = false;
+                }
+            }
+
+            if (format == Format.JSON) {
+                gen.writeEndArray();
+                ApiResponseSerializer.writeTail(envelope, gen);
+            }
+        }
+    }
+}
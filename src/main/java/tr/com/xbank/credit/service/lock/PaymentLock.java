@@ -0,0 +1,32 @@
+package tr.com.xbank.credit.service.lock;
+
+import java.util.Collection;
+
+/**
+ * Serializes installment payments per loan. Payments of unrelated loans never wait on each other.
+ * The implementation is chosen with {@code app.loan.payment-lock.mode}.
+ */
+public interface PaymentLock {
+
+    /**
+     * Blocks until no other transaction is paying the given loan. The lock is held until the
+     * current transaction completes, so it must be called inside one and before the loan or its
+     * installments are read.
+     */
+    void acquire(Long loanId);
+
+    /**
+     * Same as {@link #acquire(Long)} for several loans. Locks are taken in a fixed order, so two
+     * transactions locking overlapping sets cannot deadlock.
+     */
+    void acquireAll(Collection<Long> loanIds);
+
+    /**
+     * Spreads loan ids over the low bits. Striped locks pick their stripe from these bits, so callers
+     * splitting work into a power of two partitions with the same bits never share a stripe.
+     */
+    static int spread(Long loanId) {
+        int hash = Long.hashCode(loanId) * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,30 @@
+package tr.com.xbank.credit.service.lock;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tr.com.xbank.credit.repository.LoanInstallmentRepository;
+
+import java.util.Collection;
+
+/**
+ * Database row locks for multi node deployments: the unpaid installments of the loan are selected
+ * {@code FOR UPDATE}, and the locks are released by the database when the transaction ends.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.loan.payment-lock.mode", havingValue = "pessimistic")
+public class PessimisticPaymentLock implements PaymentLock {
+
+    private final LoanInstallmentRepository loanInstallmentRepository;
+
+    @Override
+    public void acquire(Long loanId) {
+        loanInstallmentRepository.lockUnpaidInstallmentsByLoanId(loanId);
+    }
+
+    @Override
+    public void acquireAll(Collection<Long> loanIds) {
+        loanInstallmentRepository.lockUnpaidInstallmentsByLoanIdIn(loanIds);
+    }
+}
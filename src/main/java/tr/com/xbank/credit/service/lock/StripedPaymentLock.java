@@ -0,0 +1,94 @@
+package tr.com.xbank.credit.service.lock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-JVM lock striping for single node deployments. Loan ids are spread over a fixed number of
+ * locks, so memory stays constant and two loans only contend when they share a stripe.
+ */
+@Component
+@ConditionalOnProperty(name = "app.loan.payment-lock.mode", havingValue = "striped", matchIfMissing = true)
+public class StripedPaymentLock implements PaymentLock {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutNanos;
+
+    public StripedPaymentLock(@Value("${app.loan.payment-lock.stripes:256}") int stripeCount,
+                              @Value("${app.loan.payment-lock.timeout:5s}") Duration timeout) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @Override
+    public void acquire(Long loanId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Payment lock must be acquired inside a transaction");
+        }
+
+        lockAll(List.of(stripes[stripeIndex(loanId)]), "loan " + loanId);
+    }
+
+    @Override
+    public void acquireAll(Collection<Long> loanIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Payment lock must be acquired inside a transaction");
+        }
+
+        // ascending stripe order, each stripe once since the locks are reentrant but released once
+        List<ReentrantLock> locks = loanIds.stream()
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .mapToObj(i -> stripes[i])
+                .toList();
+        lockAll(locks, loanIds.size() + " loans");
+    }
+
+    private void lockAll(List<ReentrantLock> locks, String description) {
+        int locked = 0;
+        try {
+            for (ReentrantLock lock : locks) {
+                if (!lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                    throw new CannotAcquireLockException("Timed out waiting for payment lock of " + description);
+                }
+                locked++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while waiting for payment lock of " + description, e);
+        } finally {
+            if (locked < locks.size()) {
+                locks.subList(0, locked).forEach(ReentrantLock::unlock);
+            }
+        }
+
+        // released after commit/rollback so the next payer reads committed installment state
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                locks.forEach(ReentrantLock::unlock);
+            }
+        });
+    }
+
+    private int stripeIndex(Long loanId) {
+        return PaymentLock.spread(loanId) & mask;
+    }
+}
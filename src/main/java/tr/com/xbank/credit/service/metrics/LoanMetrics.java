@@ -0,0 +1,162 @@
+package tr.com.xbank.credit.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Loan lifecycle metrics, exposed under {@code /actuator/metrics}:
+ * <ul>
+ *     <li>{@code credit.loan.operation} timer per operation and outcome, from the start of the
+ *     transaction to its completion, so flush and commit are included</li>
+ *     <li>{@code credit.loan.phase} timer per operation and phase, {@code commit} covering flush and commit</li>
+ *     <li>{@code credit.loan.rejections} counter per rejection reason</li>
+ *     <li>{@code credit.loan.payment.installments} summary of installments paid per payment</li>
+ * </ul>
+ * Every tag value comes from an enum, so cardinality stays fixed. Meters are registered up front.
+ */
+@Component
+public class LoanMetrics {
+
+    public enum Operation {
+        CREATE, PAY, BULK_CREATE, BULK_PAY;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    public enum Phase {
+        CUSTOMER_LOOKUP(Operation.CREATE),
+        CREDIT_RESERVATION(Operation.CREATE),
+        LOAN_SAVE(Operation.CREATE),
+        INSTALLMENT_GENERATION(Operation.CREATE),
+        INSTALLMENT_SAVE(Operation.CREATE),
+        PAYMENT_LOCK(Operation.PAY),
+        LOAN_LOOKUP(Operation.PAY),
+        INSTALLMENT_LOOKUP(Operation.PAY),
+        PAYMENT_PROCESSING(Operation.PAY),
+        FULLY_PAID_CHECK(Operation.PAY);
+
+        private final Operation operation;
+        private final String tag = name().toLowerCase(Locale.ROOT);
+
+        Phase(Operation operation) {
+            this.operation = operation;
+        }
+    }
+
+    public enum Rejection {
+        CUSTOMER_NOT_FOUND, INSUFFICIENT_CREDIT_LIMIT, LOAN_NOT_FOUND, LOAN_ALREADY_PAID,
+        NO_ELIGIBLE_INSTALLMENTS, INSUFFICIENT_PAYMENT;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final String COMMIT_PHASE = "commit";
+
+    private final Map<Operation, Timer> committed = new EnumMap<>(Operation.class);
+    private final Map<Operation, Timer> rolledBack = new EnumMap<>(Operation.class);
+    private final Map<Operation, Timer> commits = new EnumMap<>(Operation.class);
+    private final Map<Phase, Timer> phases = new EnumMap<>(Phase.class);
+    private final Map<Rejection, Counter> rejections = new EnumMap<>(Rejection.class);
+    private final Map<Operation, DistributionSummary> installmentsPaid = new EnumMap<>(Operation.class);
+    private final MeterRegistry registry;
+
+    public LoanMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        for (Operation operation : Operation.values()) {
+            committed.put(operation, operationTimer(operation, "committed"));
+            rolledBack.put(operation, operationTimer(operation, "rolled_back"));
+            commits.put(operation, phaseTimer(operation, COMMIT_PHASE));
+        }
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, phaseTimer(phase.operation, phase.tag));
+        }
+        for (Rejection rejection : Rejection.values()) {
+            rejections.put(rejection, Counter.builder("credit.loan.rejections")
+                    .description("Loans and payments rejected by the business rules")
+                    .tag("reason", rejection.tag)
+                    .register(registry));
+        }
+        for (Operation operation : new Operation[]{Operation.PAY, Operation.BULK_PAY}) {
+            installmentsPaid.put(operation, DistributionSummary.builder("credit.loan.payment.installments")
+                    .description("Installments paid by a single payment")
+                    .baseUnit("installments")
+                    .tag("operation", operation.tag)
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Times the current transaction as {@code operation} until it completes, including the commit
+     * phase. Does nothing outside a transaction.
+     */
+    public void timeTransaction(Operation operation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        long start = registry.config().clock().monotonicTime();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long commitStart;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitStart = registry.config().clock().monotonicTime();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                long end = registry.config().clock().monotonicTime();
+                if (status == STATUS_COMMITTED) {
+                    committed.get(operation).record(end - start, TimeUnit.NANOSECONDS);
+                    commits.get(operation).record(end - commitStart, TimeUnit.NANOSECONDS);
+                } else {
+                    rolledBack.get(operation).record(end - start, TimeUnit.NANOSECONDS);
+                }
+            }
+        });
+    }
+
+    public <T> T phase(Phase phase, Supplier<T> action) {
+        return phases.get(phase).record(action);
+    }
+
+    public void phase(Phase phase, Runnable action) {
+        phases.get(phase).record(action);
+    }
+
+    public void rejected(Rejection rejection) {
+        rejections.get(rejection).increment();
+    }
+
+    public void installmentsPaid(Operation operation, int count) {
+        installmentsPaid.get(operation).record(count);
+    }
+
+    private Timer operationTimer(Operation operation, String outcome) {
+        return Timer.builder("credit.loan.operation")
+                .description("Loan operations from transaction start to completion")
+                .tag("operation", operation.tag)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private Timer phaseTimer(Operation operation, String phase) {
+        return Timer.builder("credit.loan.phase")
+                .description("Phases of loan operations")
+                .tag("operation", operation.tag)
+                .tag("phase", phase)
+                .register(registry);
+    }
+}
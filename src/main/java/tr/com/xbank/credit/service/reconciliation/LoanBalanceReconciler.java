@@ -0,0 +1,201 @@
+package tr.com.xbank.credit.service.reconciliation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tr.com.xbank.credit.entity.Loan;
+import tr.com.xbank.credit.repository.CustomerCreditRepository;
+import tr.com.xbank.credit.repository.LoanInstallmentRepository;
+import tr.com.xbank.credit.repository.LoanInstallmentRepository.UnpaidBalance;
+import tr.com.xbank.credit.repository.LoanRepository;
+import tr.com.xbank.credit.service.lock.PaymentLock;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Checks the balance kept on every {@link Loan} (unpaid installment count, outstanding amount and next
+ * due date) against its unpaid installments. Loans are read in id order, {@code app.loan.reconciliation.batch-size}
+ * at a time, with one grouped installment query per batch. A mismatch is checked again under the payment
+ * lock, so a payment committing in between is not taken for drift, then corrected and counted in
+ * {@code credit.loan.reconciliation.corrections}. An open loan left without unpaid installments is
+ * closed and its credit released, as its final payment would have, and counted in
+ * {@code credit.loan.reconciliation.closures}. Runs on {@code app.loan.reconciliation.cron}.
+ */
+@Slf4j
+@Component
+public class LoanBalanceReconciler {
+
+    private final LoanRepository loanRepository;
+    private final LoanInstallmentRepository loanInstallmentRepository;
+    private final CustomerCreditRepository customerCreditRepository;
+    private final PaymentLock paymentLock;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final Counter corrections;
+    private final Counter closures;
+    private final int batchSize;
+
+    public LoanBalanceReconciler(LoanRepository loanRepository,
+                                 LoanInstallmentRepository loanInstallmentRepository,
+                                 CustomerCreditRepository customerCreditRepository,
+                                 PaymentLock paymentLock,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.loan.reconciliation.batch-size:1000}") int batchSize) {
+        this.loanRepository = loanRepository;
+        this.loanInstallmentRepository = loanInstallmentRepository;
+        this.customerCreditRepository = customerCreditRepository;
+        this.paymentLock = paymentLock;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.corrections = Counter.builder("credit.loan.reconciliation.corrections")
+                .description("Loans whose balance counters disagreed with their installments and were corrected")
+                .register(meterRegistry);
+        this.closures = Counter.builder("credit.loan.reconciliation.closures")
+                .description("Open loans found without unpaid installments and closed")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${app.loan.reconciliation.cron:-}")
+    void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * Checks every loan and corrects the balances that drifted.
+     * @return the number of loans corrected
+     */
+    public int reconcile() {
+        long afterLoanId = 0;
+        int checked = 0;
+        int corrected = 0;
+
+        while (true) {
+            long after = afterLoanId;
+            Batch batch = readTransaction.execute(status -> checkBatch(after));
+            if (batch.size() == 0) {
+                break;
+            }
+            if (!batch.drifted().isEmpty()) {
+                corrected += writeTransaction.execute(status -> correct(batch.drifted()));
+            }
+            checked += batch.size();
+            afterLoanId = batch.lastLoanId();
+        }
+
+        log.info("Reconciled the balances of {} loans, {} corrected", checked, corrected);
+        return corrected;
+    }
+
+    private Batch checkBatch(long afterLoanId) {
+        List<Loan> loans = loanRepository.findPageAfter(afterLoanId, Limit.of(batchSize));
+        if (loans.isEmpty()) {
+            return new Batch(0, afterLoanId, List.of());
+        }
+
+        long lastLoanId = loans.get(loans.size() - 1).getId();
+        Map<Long, UnpaidBalance> balances =
+                byLoanId(loanInstallmentRepository.sumUnpaidBalancesByLoanIdRange(afterLoanId, lastLoanId));
+
+        List<Long> drifted = loans.stream()
+                .filter(loan -> drifted(loan, Balance.of(balances.get(loan.getId()))))
+                .map(Loan::getId)
+                .toList();
+        return new Batch(loans.size(), lastLoanId, drifted);
+    }
+
+    private int correct(List<Long> loanIds) {
+        paymentLock.acquireAll(loanIds);
+
+        Map<Long, UnpaidBalance> balances = byLoanId(loanInstallmentRepository.sumUnpaidBalancesByLoanIdIn(loanIds));
+        int corrected = 0;
+        List<Loan> closed = new ArrayList<>();
+
+        for (Loan loan : loanRepository.findAllById(loanIds)) {
+            Balance kept = Balance.of(loan);
+            Balance actual = Balance.of(balances.get(loan.getId()));
+            if (!drifted(loan, actual)) {
+                continue;
+            }
+
+            log.warn("Loan {} balance {} disagreed with its installments {}, corrected", loan.getId(), kept, actual);
+            loan.setUnpaidInstallmentCount((int) actual.unpaidInstallmentCount());
+            loan.setOutstandingAmount(actual.outstandingAmount());
+            loan.setNextDueDate(actual.nextDueDate());
+            if (actual.unpaidInstallmentCount() == 0) {
+                log.warn("Loan {} has no unpaid installments left, closed", loan.getId());
+                loan.setPaid(true);
+                closed.add(loan);
+            }
+            corrections.increment();
+            corrected++;
+        }
+
+        releaseCreditLimits(closed);
+        return corrected;
+    }
+
+    // an open loan without unpaid installments drifted too, even with matching counters
+    private static boolean drifted(Loan loan, Balance actual) {
+        return !Balance.of(loan).equals(actual) || (!loan.isPaid() && actual.unpaidInstallmentCount() == 0);
+    }
+
+    // one release per customer, as for the loans a bulk payment pays off
+    private void releaseCreditLimits(List<Loan> closed) {
+        closed.stream()
+                .collect(Collectors.groupingBy(loan -> loan.getCustomer().getId(),
+                        Collectors.reducing(BigDecimal.ZERO, Loan::getLoanAmount, BigDecimal::add)))
+                .forEach(customerCreditRepository::releaseCreditLimit);
+        closures.increment(closed.size());
+    }
+
+    private static Map<Long, UnpaidBalance> byLoanId(List<UnpaidBalance> balances) {
+        return balances.stream().collect(Collectors.toMap(UnpaidBalance::getLoanId, Function.identity()));
+    }
+
+    private record Batch(int size, long lastLoanId, List<Long> drifted) {}
+
+    // amounts compared by value, the database may return another scale
+    private record Balance(long unpaidInstallmentCount, BigDecimal outstandingAmount, LocalDate nextDueDate) {
+
+        static Balance of(Loan loan) {
+            return new Balance(loan.getUnpaidInstallmentCount(), loan.getOutstandingAmount(), loan.getNextDueDate());
+        }
+
+        // a loan without unpaid installments has no row in the grouped query
+        static Balance of(UnpaidBalance balance) {
+            return balance == null
+                    ? new Balance(0, BigDecimal.ZERO, null)
+                    : new Balance(balance.getUnpaidInstallmentCount(), balance.getOutstandingAmount(), balance.getNextDueDate());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Balance other
+                    && unpaidInstallmentCount == other.unpaidInstallmentCount
+                    && outstandingAmount != null && other.outstandingAmount != null
+                    && outstandingAmount.compareTo(other.outstandingAmount) == 0
+                    && Objects.equals(nextDueDate, other.nextDueDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(unpaidInstallmentCount, nextDueDate);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package tr.com.xbank.credit.util;
+
+import java.time.LocalDate;
+
+/**
+ * {@link MoneyMath#adjustedUnits} as a lookup: the adjustment is linear in the days until due, so the
+ * per-mille factor of every day from {@value #MAX_DAYS_OVERDUE} days overdue to {@value #MAX_DAYS_AHEAD}
+ * days ahead is computed once for a date and an adjusted amount is one multiplication. Days outside the
+ * table fall back to {@link MoneyMath#adjustedUnits}, with the same result. Tables are immutable,
+ * {@link #today()} builds a new one when the date changes.
+ */
+public final class AdjustmentTable {
+
+    // installments are eligible up to three months ahead, overdue ones past ten years are computed
+    static final int MAX_DAYS_AHEAD = 93;
+    static final int MAX_DAYS_OVERDUE = 3660;
+
+    private static volatile AdjustmentTable current;
+
+    private final LocalDate date;
+    private final long epochDay;
+    // per mille of the installment amount, indexed by days until due + MAX_DAYS_OVERDUE
+    private final long[] factors;
+
+    private AdjustmentTable(LocalDate date) {
+        this.date = date;
+        this.epochDay = date.toEpochDay();
+        this.factors = new long[MAX_DAYS_OVERDUE + MAX_DAYS_AHEAD + 1];
+        for (int i = 0; i < factors.length; i++) {
+            factors[i] = MoneyMath.PER_MILLE - MoneyMath.DAILY_ADJUSTMENT_PER_MILLE * (i - MAX_DAYS_OVERDUE);
+        }
+    }
+
+    public static AdjustmentTable forDate(LocalDate date) {
+        return new AdjustmentTable(date);
+    }
+
+    /**
+     * The table of the current date, shared until the date changes.
+     */
+    public static AdjustmentTable today() {
+        LocalDate today = LocalDate.now();
+        AdjustmentTable table = current;
+        if (table == null || !table.date.equals(today)) {
+            table = new AdjustmentTable(today);
+            current = table;
+        }
+        return table;
+    }
+
+    public LocalDate date() {
+        return date;
+    }
+
+    public long daysUntilDue(LocalDate dueDate) {
+        return dueDate.toEpochDay() - epochDay;
+    }
+
+    /**
+     * Same as {@link MoneyMath#adjustedUnits} for the table date.
+     */
+    public long adjustedUnits(long baseUnits, long daysUntilDue) {
+        long index = daysUntilDue + MAX_DAYS_OVERDUE;
+        if (daysUntilDue == 0 || index < 0 || index >= factors.length) {
+            return MoneyMath.adjustedUnits(baseUnits, daysUntilDue);
+        }
+        if (baseUnits % MoneyMath.PER_MILLE != 0) {
+            throw new IllegalArgumentException("Installment amount must have at most two decimals");
+        }
+        return Math.multiplyExact(baseUnits / MoneyMath.PER_MILLE, factors[(int) index]);
+    }
+}
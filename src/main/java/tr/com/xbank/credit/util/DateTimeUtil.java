@@ -1,16 +1,40 @@
 package tr.com.xbank.credit.util;
 
+import java.time.Instant;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 
 public class DateTimeUtil {
 
     public static final String DATE_TIME_PATTERN_WITH_ISO_8601_TIMEZONE = "yyyy-MM-dd'T'HH:mm:ss.SSSXXX";
+    private static final ZoneId ZONE = ZoneId.of("GMT+3");
     private static final DateTimeFormatter ISO_8601_FORMATTER =
-            DateTimeFormatter.ofPattern(DATE_TIME_PATTERN_WITH_ISO_8601_TIMEZONE);
+            DateTimeFormatter.ofPattern(DATE_TIME_PATTERN_WITH_ISO_8601_TIMEZONE).withZone(ZONE);
+
+    // the last millisecond formatted, responses within the same millisecond share it
+    private static volatile Timestamp current = format(System.currentTimeMillis());
+
+    /**
+     * The current time in unix and ISO 8601 format, at millisecond granularity.
+     */
+    public record Timestamp(long unix, String iso8601) {
+    }
+
+    public static Timestamp now() {
+        long millis = System.currentTimeMillis();
+        Timestamp timestamp = current;
+        if (timestamp.unix() != millis) {
+            timestamp = format(millis);
+            current = timestamp;
+        }
+        return timestamp;
+    }
 
     public static String getIso8601Timestamp() {
-        return ZonedDateTime.now(ZoneId.of("GMT+3")).format(ISO_8601_FORMATTER);
+        return now().iso8601();
+    }
+
+    private static Timestamp format(long millis) {
+        return new Timestamp(millis, ISO_8601_FORMATTER.format(Instant.ofEpochMilli(millis)));
     }
 }
@@ -0,0 +1,150 @@
+package tr.com.xbank.credit.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Installment and payment arithmetic on {@code long} money units of 10^-5: two digits for kuruş plus
+ * three for the per-mille daily adjustment rate, so every adjusted installment amount is exact. The
+ * unit methods do not allocate; {@link BigDecimal} is only touched when converting at the edges, and
+ * every {@link BigDecimal} returned has the same value and scale as the formulas it replaces. Units
+ * cover amounts up to about 92 trillion, larger ones are rejected.
+ */
+public final class MoneyMath {
+
+    public static final int SCALE = 5;
+
+    // early payment discount and late payment penalty, per day: 0.001 = 1 per mille
+    static final long DAILY_ADJUSTMENT_PER_MILLE = 1;
+    static final long PER_MILLE = 1000;
+    static final int PER_MILLE_SCALE = 3;
+
+    private static final int INSTALLMENT_SCALE = 2;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L,
+            100_000_000_000_000L, 1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L,
+            1_000_000_000_000_000_000L
+    };
+
+    private MoneyMath() {
+    }
+
+    /**
+     * Exact units of an amount with at most {@value #SCALE} decimals.
+     *
+     * @throws IllegalArgumentException if the amount has more decimals or does not fit in a long
+     */
+    public static long toUnits(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range: " + amount.toPlainString());
+        }
+    }
+
+    /**
+     * Units of a payment, rounded down. Installment amounts are whole units, so a payment covers an
+     * installment exactly when its rounded down units do, and the same holds for what remains of it.
+     *
+     * @throws IllegalArgumentException if the amount does not fit in a long
+     */
+    public static long toUnitsFloor(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).setScale(0, RoundingMode.FLOOR).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range: " + amount.toPlainString());
+        }
+    }
+
+    /**
+     * The amount of the given units with the given scale. The units must be representable at that
+     * scale, which holds for every amount produced by this class.
+     */
+    public static BigDecimal toAmount(long units, int scale) {
+        return scale <= SCALE && SCALE - scale < POWERS_OF_TEN.length
+                ? BigDecimal.valueOf(units / POWERS_OF_TEN[SCALE - scale], scale)
+                : BigDecimal.valueOf(units, SCALE).setScale(scale, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * Installment amount adjusted by 0.1% per day: a discount for each day before the due date and a
+     * penalty for each day after it.
+     *
+     * @param baseUnits installment amount in units, with at most two decimals
+     * @param daysUntilDue days from today to the due date, negative when overdue
+     */
+    public static long adjustedUnits(long baseUnits, long daysUntilDue) {
+        if (daysUntilDue == 0) {
+            return baseUnits;
+        }
+        if (baseUnits % PER_MILLE != 0) {
+            throw new IllegalArgumentException("Installment amount must have at most two decimals");
+        }
+        long adjustment = Math.multiplyExact(baseUnits / PER_MILLE,
+                Math.multiplyExact(DAILY_ADJUSTMENT_PER_MILLE, daysUntilDue));
+        return Math.subtractExact(baseUnits, adjustment);
+    }
+
+    /**
+     * The adjusted amount for {@link #adjustedUnits} of {@code baseAmount}. An adjustment adds the
+     * three decimals of the per-mille rate to the scale, an installment paid on its due date keeps
+     * its amount as is.
+     */
+    public static BigDecimal toAdjustedAmount(BigDecimal baseAmount, long adjustedUnits, long daysUntilDue) {
+        return daysUntilDue == 0 ? baseAmount : toAmount(adjustedUnits, baseAmount.scale() + PER_MILLE_SCALE);
+    }
+
+    /**
+     * {@link #adjustedUnits} on an amount, for callers outside the payment loop.
+     */
+    public static BigDecimal adjustedAmount(BigDecimal baseAmount, long daysUntilDue) {
+        return toAdjustedAmount(baseAmount, adjustedUnits(toUnits(baseAmount), daysUntilDue), daysUntilDue);
+    }
+
+    /**
+     * {@code principal * (1 + interestRate) / numberOfInstallments}, rounded half up to kuruş. Runs
+     * on longs when the unscaled values fit, otherwise on {@link BigDecimal}.
+     */
+    public static BigDecimal installmentAmount(BigDecimal principal, BigDecimal interestRate, int numberOfInstallments) {
+        int principalScale = principal.scale();
+        int rateScale = interestRate.scale();
+
+        if (numberOfInstallments > 0 && principalScale >= 0 && rateScale >= 0
+                && principalScale + rateScale < POWERS_OF_TEN.length) {
+            try {
+                long principalUnscaled = principal.movePointRight(principalScale).longValueExact();
+                long rateUnscaled = interestRate.movePointRight(rateScale).longValueExact();
+
+                long totalUnscaled = Math.multiplyExact(principalUnscaled,
+                        Math.addExact(POWERS_OF_TEN[rateScale], rateUnscaled));
+                long installment = divideHalfUp(totalUnscaled, principalScale + rateScale, numberOfInstallments);
+
+                return BigDecimal.valueOf(installment, INSTALLMENT_SCALE);
+            } catch (ArithmeticException e) {
+                // amounts beyond long range take the BigDecimal path below
+            }
+        }
+
+        return principal.multiply(BigDecimal.ONE.add(interestRate))
+                .divide(BigDecimal.valueOf(numberOfInstallments), INSTALLMENT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    // unscaled/10^scale divided by divisor, as unscaled at INSTALLMENT_SCALE
+    private static long divideHalfUp(long unscaled, int scale, long divisor) {
+        long dividend = unscaled;
+        if (scale <= INSTALLMENT_SCALE) {
+            dividend = Math.multiplyExact(unscaled, POWERS_OF_TEN[INSTALLMENT_SCALE - scale]);
+        } else {
+            divisor = Math.multiplyExact(divisor, POWERS_OF_TEN[scale - INSTALLMENT_SCALE]);
+        }
+
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+}
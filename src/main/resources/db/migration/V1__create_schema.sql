@@ -0,0 +1,56 @@
+-- Baseline: the schema previously generated by ddl-auto, plus the customer_credits foreign key
+
+create sequence customers_seq start with 1 increment by 50;
+
+create sequence loans_seq start with 1 increment by 50;
+
+create sequence loan_installments_seq start with 1 increment by 50;
+
+create table customers (
+    id bigint not null,
+    name varchar(255) not null,
+    surname varchar(255) not null,
+    username varchar(255) not null,
+    password varchar(255) not null,
+    email varchar(255) not null,
+    credit_limit numeric(38,2),
+    version bigint,
+    primary key (id),
+    constraint uk_customers_username unique (username),
+    constraint uk_customers_email unique (email)
+);
+
+create table customer_credits (
+    customer_id bigint not null,
+    used_credit_limit numeric(38,2),
+    version bigint,
+    primary key (customer_id),
+    constraint fk_customer_credits_customer foreign key (customer_id) references customers (id)
+);
+
+create table loans (
+    id bigint not null,
+    customer_id bigint not null,
+    loan_amount numeric(38,2) not null,
+    number_of_installment integer not null,
+    interest_rate numeric(38,2),
+    create_date timestamp(6),
+    is_paid boolean not null,
+    primary key (id),
+    constraint fk_loans_customer foreign key (customer_id) references customers (id)
+);
+
+-- keyset pagination of a customer's loans seeks on (customer_id, id)
+create index idx_loans_customer_id_id on loans (customer_id, id);
+
+create table loan_installments (
+    id bigint not null,
+    loan_id bigint not null,
+    amount numeric(38,2) not null,
+    paid_amount numeric(38,2),
+    due_date date not null,
+    payment_date date,
+    is_paid boolean not null,
+    primary key (id),
+    constraint fk_loan_installments_loan foreign key (loan_id) references loans (id)
+);
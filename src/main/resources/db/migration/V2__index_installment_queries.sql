@@ -0,0 +1,5 @@
+-- Unpaid installments of a loan, due up to a date: the payment lookup
+-- (findUnpaidInstallmentsByLoanIdAndMaxDueDate) seeks on all three columns, the unpaid counts and
+-- payment locks on the (loan_id, is_paid) prefix.
+-- H2 has no partial indexes, so is_paid is a key column rather than a WHERE is_paid = false filter.
+create index idx_loan_installments_loan_unpaid_due on loan_installments (loan_id, is_paid, due_date);
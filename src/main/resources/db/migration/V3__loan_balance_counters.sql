@@ -0,0 +1,14 @@
+-- Balance of the unpaid installments kept on the loan, maintained by the payment paths
+alter table loans add column unpaid_installment_count integer default 0 not null;
+
+alter table loans add column outstanding_amount numeric(38,2);
+
+alter table loans add column next_due_date date;
+
+update loans l
+set unpaid_installment_count = (
+        select count(*) from loan_installments li where li.loan_id = l.id and li.is_paid = false),
+    outstanding_amount = (
+        select coalesce(sum(li.amount), 0) from loan_installments li where li.loan_id = l.id and li.is_paid = false),
+    next_due_date = (
+        select min(li.due_date) from loan_installments li where li.loan_id = l.id and li.is_paid = false);
@@ -0,0 +1,99 @@
+package tr.com.xbank.credit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// one request in progress and none waiting, so a second concurrent request is rejected at once
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "app.web.bulkhead.max-concurrent=1",
+        "app.web.bulkhead.max-waiting=0",
+        "app.virtual-threads.pinned-threshold=10ms"
+})
+class VirtualThreadModeTest {
+
+    private static final Object MONITOR = new Object();
+
+    @Autowired
+    private RequestBulkhead bulkhead;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("A request beyond the bulkhead limit should be answered 503")
+    void bulkhead_RejectsBeyondLimit() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blocking = (request, response) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        Thread inProgress = Thread.ofVirtual().start(() -> {
+            try {
+                bulkhead.doFilter(request(), new MockHttpServletResponse(), blocking);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        bulkhead.doFilter(request(), rejected, (request, response) -> {});
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+
+        release.countDown();
+        inProgress.join();
+
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        bulkhead.doFilter(request(), admitted, (request, response) -> {});
+        assertEquals(HttpStatus.OK.value(), admitted.getStatus());
+        assertEquals(1.0, meterRegistry.get("credit.http.bulkhead.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("A virtual thread blocking inside synchronized should be recorded as pinned")
+    void pinningMonitor_RecordsPinnedThreads() throws Exception {
+        Thread.ofVirtual().start(() -> {
+            synchronized (MONITOR) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+
+        // JFR hands events to the stream about once a second
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get("credit.virtual.threads.pinned").timer().count() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(meterRegistry.get("credit.virtual.threads.pinned").timer().count() > 0);
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/credit/loans/1/installments");
+        request.setServletPath("/loans/1/installments");
+        return request;
+    }
+}
@@ -1,6 +1,9 @@
 package tr.com.xbank.credit.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -8,34 +11,57 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tr.com.xbank.credit.config.WireFormatConfig;
+import tr.com.xbank.credit.dto.ApiResponse;
 import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.dto.request.LoanFilter;
 import tr.com.xbank.credit.dto.request.PayLoanRequest;
+import tr.com.xbank.credit.dto.response.DelinquencyReport;
 import tr.com.xbank.credit.dto.response.InstallmentDto;
 import tr.com.xbank.credit.dto.response.LoanDto;
+import tr.com.xbank.credit.dto.response.LoanPage;
 import tr.com.xbank.credit.dto.response.PaymentResult;
+import tr.com.xbank.credit.dto.response.PayoffQuote;
 import tr.com.xbank.credit.security.LoanSecurityService;
 import tr.com.xbank.credit.security.UserPrincipal;
+import tr.com.xbank.credit.service.BulkLoanService;
+import tr.com.xbank.credit.service.BulkPaymentService;
 import tr.com.xbank.credit.service.LoanService;
+import tr.com.xbank.credit.service.LoanStreamService;
+import tr.com.xbank.credit.service.delinquency.DelinquencyScanner;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(LoanController.class)
+@Import(WireFormatConfig.class)
 class LoanControllerTest {
 
     @Autowired
@@ -44,6 +70,18 @@ class LoanControllerTest {
     @MockBean
     private LoanService loanService;
 
+    @MockBean
+    private LoanStreamService loanStreamService;
+
+    @MockBean
+    private BulkLoanService bulkLoanService;
+
+    @MockBean
+    private BulkPaymentService bulkPaymentService;
+
+    @MockBean
+    private DelinquencyScanner delinquencyScanner;
+
     @MockBean
     private LoanSecurityService loanSecurityService;
 
@@ -73,7 +111,10 @@ class LoanControllerTest {
                 BigDecimal.valueOf(0.1),
                 6,
                 LocalDateTime.now(),
-                false
+                false,
+                6,
+                BigDecimal.valueOf(1100),
+                LocalDate.now().withDayOfMonth(1).plusMonths(1)
         );
 
         installmentDto = new InstallmentDto(
@@ -157,13 +198,41 @@ class LoanControllerTest {
         @DisplayName("Admin should be able to get loans for any customer")
         void getLoansByCustomerId_AdminSuccess() throws Exception {
             List<LoanDto> loans = Arrays.asList(loanDto);
-            when(loanService.getLoansByCustomerId(anyLong())).thenReturn(loans);
+            when(loanService.getLoansByCustomerId(anyLong(), any(LoanFilter.class))).thenReturn(new LoanPage(loans, null));
 
             mockMvc.perform(get("/loans/customer/1")
                             .with(user(adminPrincipal)))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.success").value(true))
-                    .andExpect(jsonPath("$.data", hasSize(1)));
+                    .andExpect(jsonPath("$.data", hasSize(1)))
+                    .andExpect(header().doesNotExist("X-Next-After"));
+        }
+
+        @Test
+        @DisplayName("Should bind paging and filter parameters and expose the next page")
+        void getLoansByCustomerId_Paged() throws Exception {
+            LoanFilter filter = new LoanFilter(false, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), 10L, 1);
+            when(loanService.getLoansByCustomerId(1L, filter)).thenReturn(new LoanPage(List.of(loanDto), 1L));
+
+            mockMvc.perform(get("/loans/customer/1")
+                            .param("isPaid", "false")
+                            .param("createdFrom", "2024-01-01")
+                            .param("createdTo", "2024-12-31")
+                            .param("after", "10")
+                            .param("limit", "1")
+                            .with(user(adminPrincipal)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data", hasSize(1)))
+                    .andExpect(header().string("X-Next-After", "1"));
+        }
+
+        @Test
+        @DisplayName("Should reject a page size above the maximum")
+        void getLoansByCustomerId_LimitTooLarge() throws Exception {
+            mockMvc.perform(get("/loans/customer/1")
+                            .param("limit", String.valueOf(LoanFilter.MAX_LIMIT + 1))
+                            .with(user(adminPrincipal)))
+                    .andExpect(status().isBadRequest());
         }
 
         // TODO
@@ -219,6 +288,117 @@ class LoanControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Streaming Tests")
+    class StreamingTests {
+
+        @Test
+        @DisplayName("Stream mode should write the loans as an envelope unless NDJSON is asked for")
+        void streamLoans_JsonByDefault() throws Exception {
+            doAnswer(invocation -> {
+                invocation.<OutputStream>getArgument(4).write("{\"success\":true}".getBytes());
+                return null;
+            }).when(loanStreamService).writeLoansByCustomerId(eq(1L), any(LoanFilter.class),
+                    eq(LoanStreamService.Format.JSON), eq("/credit/loans/customer/1"), any(OutputStream.class));
+
+            MvcResult result = mockMvc.perform(get("/loans/customer/1")
+                            .param("stream", "true")
+                            .accept(MediaType.ALL)
+                            .with(user(adminPrincipal)))
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.success").value(true));
+        }
+
+        @Test
+        @DisplayName("Stream mode should write NDJSON installments when asked for")
+        void streamInstallments_Ndjson() throws Exception {
+            doAnswer(invocation -> {
+                invocation.<OutputStream>getArgument(3).write("{\"id\":1}\n".getBytes());
+                return null;
+            }).when(loanStreamService).writeLoanInstallments(eq(1L), eq(LoanStreamService.Format.NDJSON),
+                    anyString(), any(OutputStream.class));
+
+            MvcResult result = mockMvc.perform(get("/loans/1/installments")
+                            .param("stream", "true")
+                            .accept(MediaType.APPLICATION_NDJSON)
+                            .with(user(adminPrincipal)))
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andExpect(content().string("{\"id\":1}\n"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Wire Format Tests")
+    class WireFormatTests {
+
+        @Test
+        @DisplayName("Installments should be encoded as CBOR when asked for")
+        void getLoanInstallments_Cbor() throws Exception {
+            when(loanService.getLoanInstallments(1L)).thenReturn(List.of(installmentDto));
+
+            byte[] body = mockMvc.perform(get("/loans/1/installments")
+                            .accept(MediaType.APPLICATION_CBOR)
+                            .with(user(adminPrincipal)))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            ApiResponse<List<InstallmentDto>> response = CBORMapper.builder().findAndAddModules().build()
+                    .readValue(body, new TypeReference<>() {});
+            assertEquals(List.of(installmentDto), response.data());
+            assertEquals("/credit/loans/1/installments", response.path());
+        }
+
+        @Test
+        @DisplayName("A payment result should be encoded as Smile when asked for")
+        void payLoanInstallments_Smile() throws Exception {
+            PaymentResult paymentResult = new PaymentResult(1, new BigDecimal("183.33"), false);
+            when(loanService.payLoanInstallments(any(PayLoanRequest.class))).thenReturn(paymentResult);
+
+            byte[] body = mockMvc.perform(post("/loans/pay")
+                            .with(csrf())
+                            .with(user(adminPrincipal))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept("application/x-jackson-smile")
+                            .content(objectMapper.writeValueAsString(payLoanRequest)))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/x-jackson-smile"))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            ApiResponse<PaymentResult> response = new SmileMapper().readValue(body, new TypeReference<>() {});
+            assertEquals(paymentResult, response.data());
+        }
+    }
+
+    @Nested
+    @DisplayName("Payoff Quote Tests")
+    class PayoffQuoteTests {
+
+        @Test
+        @DisplayName("Customer should get the payoff quote of their own loan")
+        void getPayoffQuote_CustomerSuccess() throws Exception {
+            when(loanSecurityService.isLoanOwner(1L, customerPrincipal.getId())).thenReturn(true);
+            PayoffQuote quote = new PayoffQuote(1L, LocalDate.now(), 1, new BigDecimal("181.86336"), List.of(
+                    new PayoffQuote.Installment(1L, LocalDate.now().plusDays(8), BigDecimal.valueOf(183.33), 8,
+                            new BigDecimal("181.86336"), new BigDecimal("181.86336"))));
+            when(loanService.getPayoffQuote(1L)).thenReturn(quote);
+
+            mockMvc.perform(get("/loans/1/quote")
+                            .with(user(customerPrincipal)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.installmentCount").value(1))
+                    .andExpect(jsonPath("$.data.installments[0].daysUntilDue").value(8));
+        }
+    }
+
     @Nested
     @DisplayName("Pay Loan Tests")
     class PayLoanTests {
@@ -270,6 +450,36 @@ class LoanControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Delinquency Report Tests")
+    class DelinquencyReportTests {
+
+        @Test
+        @DisplayName("Admin should get the latest delinquency report")
+        void getDelinquencyReport_AdminSuccess() throws Exception {
+            DelinquencyReport report = new DelinquencyReport(LocalDate.now(), LocalDateTime.now(), 1, 2,
+                    BigDecimal.valueOf(366.66), new BigDecimal("2.38329"), List.of(
+                    new DelinquencyReport.Bucket("1-30", 1, 2, BigDecimal.valueOf(366.66), new BigDecimal("2.38329"))));
+            when(delinquencyScanner.latestReport()).thenReturn(Optional.of(report));
+
+            mockMvc.perform(get("/loans/delinquency-report")
+                            .with(user(adminPrincipal)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.overdueLoans").value(1))
+                    .andExpect(jsonPath("$.data.buckets[0].daysOverdue").value("1-30"));
+        }
+
+        @Test
+        @DisplayName("Should return not found before the first scan")
+        void getDelinquencyReport_NotGeneratedYet() throws Exception {
+            when(delinquencyScanner.latestReport()).thenReturn(Optional.empty());
+
+            mockMvc.perform(get("/loans/delinquency-report")
+                            .with(user(adminPrincipal)))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
     @Test
     @DisplayName("Should require authentication")
     void shouldRequireAuthentication() throws Exception {
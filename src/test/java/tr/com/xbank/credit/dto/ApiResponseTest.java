@@ -0,0 +1,65 @@
+package tr.com.xbank.credit.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import tr.com.xbank.credit.dto.response.PaymentResult;
+import tr.com.xbank.credit.util.DateTimeUtil;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ApiResponseTest {
+
+    private static final long UNIX = 1_760_000_000_123L;
+    private static final String ISO_8601 = "2025-10-09T11:53:20.123+03:00";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    @DisplayName("A success response should keep the field names and order of the bean serialization")
+    void serialize_Success() throws Exception {
+        ApiResponse<PaymentResult> response = new ApiResponse<>(true, "SUCCESS",
+                new PaymentResult(3, new BigDecimal("1874.37500"), false), null, 0, UNIX, ISO_8601, "/credit/loans/pay");
+
+        assertEquals("{\"success\":true,\"message\":\"SUCCESS\","
+                        + "\"data\":{\"installmentsPaid\":3,\"amountSpent\":1874.37500,\"isLoanFullyPaid\":false},"
+                        + "\"errors\":null,\"errorCode\":0,\"timestamp_unix\":1760000000123,"
+                        + "\"timestamp_iso8601\":\"2025-10-09T11:53:20.123+03:00\",\"path\":\"/credit/loans/pay\"}",
+                objectMapper.writeValueAsString(response));
+    }
+
+    @Test
+    @DisplayName("An error response should write the errors and a null data")
+    void serialize_Error() throws Exception {
+        ApiResponse<?> response = new ApiResponse<>(false, "Validation failed", null,
+                List.of("amount: must be positive", "loanId: \"x\" is not a number"), 400, UNIX, ISO_8601, "/credit/loans/pay");
+
+        assertEquals("{\"success\":false,\"message\":\"Validation failed\",\"data\":null,"
+                        + "\"errors\":[\"amount: must be positive\",\"loanId: \\\"x\\\" is not a number\"],"
+                        + "\"errorCode\":400,\"timestamp_unix\":1760000000123,"
+                        + "\"timestamp_iso8601\":\"2025-10-09T11:53:20.123+03:00\",\"path\":\"/credit/loans/pay\"}",
+                objectMapper.writeValueAsString(response));
+    }
+
+    @Test
+    @DisplayName("The cached timestamp should be formatted like before, from the same millisecond as the unix one")
+    void timestamp_MatchesZonedFormat() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DateTimeUtil.DATE_TIME_PATTERN_WITH_ISO_8601_TIMEZONE);
+        DateTimeUtil.Timestamp timestamp = DateTimeUtil.now();
+
+        assertEquals(ZonedDateTime.ofInstant(Instant.ofEpochMilli(timestamp.unix()), ZoneId.of("GMT+3")).format(formatter),
+                timestamp.iso8601());
+
+        ApiResponse<String> response = ApiResponse.success("data", "/credit/test");
+        assertEquals(response.timestamp_unix(),
+                ZonedDateTime.parse(response.timestamp_iso8601(), formatter).toInstant().toEpochMilli());
+    }
+}
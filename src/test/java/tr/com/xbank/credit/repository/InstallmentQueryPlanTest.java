@@ -0,0 +1,201 @@
+package tr.com.xbank.credit.repository;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import tr.com.xbank.credit.service.delinquency.DelinquencyScanner;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks with EXPLAIN that the hot installment and loan queries use the indexes of the Flyway migrations
+ * on a million installments. The repository queries are run and the SQL Hibernate prepared for them is
+ * captured with a {@link StatementInspector}, then explained with the same parameters.
+ * The context is closed afterwards, so the million rows do not stay in memory for the following tests.
+ */
+@SpringBootTest
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class InstallmentQueryPlanTest {
+
+    private static final int CUSTOMERS = 1_000;
+    private static final int LOANS = 100_000;
+    private static final int INSTALLMENTS_PER_LOAN = 10;
+    // above the ids handed out by the sequences to the data initializer
+    private static final long ID_OFFSET = 1_000_000;
+
+    private static final long LOAN_ID = ID_OFFSET + 50_000;
+    private static final long CUSTOMER_ID = ID_OFFSET + 500;
+    private static final LocalDate DUE_DATE = LocalDate.of(2026, 6, 1);
+
+    private static final String INSTALLMENT_INDEX = "IDX_LOAN_INSTALLMENTS_LOAN_UNPAID_DUE";
+    private static final String LOAN_INDEX = "IDX_LOANS_CUSTOMER_ID_ID";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LoanInstallmentRepository loanInstallmentRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private StatementCapture statementCapture;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO customers (id, name, surname, username, password, email, credit_limit, version)
+                SELECT ? + X, 'Plan', 'Test', 'plan' || X, 'not-used', 'plan' || X || '@example.com', 1000000, 0
+                FROM SYSTEM_RANGE(1, ?)""", ID_OFFSET, CUSTOMERS);
+        jdbcTemplate.update("""
+                INSERT INTO loans (id, customer_id, loan_amount, number_of_installment, interest_rate, create_date, is_paid)
+                SELECT ? + X, ? + 1 + MOD(X, ?), 1000, ?, 0.1, CURRENT_TIMESTAMP, FALSE
+                FROM SYSTEM_RANGE(1, ?)""", ID_OFFSET, ID_OFFSET, CUSTOMERS, INSTALLMENTS_PER_LOAN, LOANS);
+        // the first three installments of every loan paid
+        jdbcTemplate.update("""
+                INSERT INTO loan_installments (id, loan_id, amount, paid_amount, due_date, payment_date, is_paid)
+                SELECT ? + X, ? + 1 + (X - 1) / ?, 110, 0, DATEADD(MONTH, MOD(X - 1, ?), DATE '2026-01-01'), NULL,
+                       MOD(X - 1, ?) < 3
+                FROM SYSTEM_RANGE(1, ?)""",
+                ID_OFFSET, ID_OFFSET, INSTALLMENTS_PER_LOAN, INSTALLMENTS_PER_LOAN, INSTALLMENTS_PER_LOAN,
+                LOANS * INSTALLMENTS_PER_LOAN);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    @DisplayName("Seeded dataset should hold a million installments")
+    void seed_MillionInstallments() {
+        assertEquals(LOANS * INSTALLMENTS_PER_LOAN, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM loan_installments WHERE id > ?", Long.class, ID_OFFSET));
+    }
+
+    @Test
+    @DisplayName("Unpaid installments due by a date should be read from the index")
+    void findUnpaidInstallmentsByLoanIdAndMaxDueDate_UsesIndex() {
+        assertUsesIndex(explainGenerated(
+                () -> loanInstallmentRepository.findUnpaidInstallmentsByLoanIdAndMaxDueDate(LOAN_ID, DUE_DATE),
+                LOAN_ID, DUE_DATE), INSTALLMENT_INDEX);
+    }
+
+    @Test
+    @DisplayName("Unpaid installments of several loans should be looked up by loan id")
+    void findUnpaidInstallmentsByLoanIdInAndMaxDueDate_SeeksLoanIds() {
+        // H2 seeks an IN list on the leading index column only
+        assertSeeksLoanId(explainGenerated(
+                () -> loanInstallmentRepository.findUnpaidInstallmentsByLoanIdInAndMaxDueDate(
+                        List.of(LOAN_ID, LOAN_ID + 1, LOAN_ID + 2), DUE_DATE),
+                LOAN_ID, LOAN_ID + 1, LOAN_ID + 2, DUE_DATE));
+    }
+
+    @Test
+    @DisplayName("Unpaid balances of a range of loans should be summed over a loan id range seek")
+    void sumUnpaidBalancesByLoanIdRange_SeeksLoanIds() {
+        assertSeeksLoanId(explainGenerated(
+                () -> loanInstallmentRepository.sumUnpaidBalancesByLoanIdRange(LOAN_ID, LOAN_ID + 1000),
+                LOAN_ID, LOAN_ID + 1000));
+    }
+
+    @Test
+    @DisplayName("Delinquency scan of a loan id range should stream overdue installments in index order")
+    void overdueInstallmentsByLoanIdRange_IndexSorted() {
+        // plain JDBC, so the scanner's own statement is explained
+        String plan = explain(DelinquencyScanner.OVERDUE_INSTALLMENTS, LOAN_ID, LOAN_ID + 10_000, DUE_DATE);
+        assertUsesIndex(plan, INSTALLMENT_INDEX);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    @DisplayName("Payment locks should select the unpaid installments by loan id")
+    void lockUnpaidInstallmentsByLoanId_SeeksLoanId() {
+        assertSeeksLoanId(explainGenerated(
+                () -> loanInstallmentRepository.lockUnpaidInstallmentsByLoanId(LOAN_ID),
+                LOAN_ID));
+    }
+
+    @Test
+    @DisplayName("A page of a customer's loans should be read from the index")
+    void findPageByCustomerId_UsesIndex() {
+        // each optional filter is bound twice, for its IS NULL check and its comparison
+        assertUsesIndex(explainGenerated(
+                () -> loanRepository.findPageByCustomerId(CUSTOMER_ID, 0, null, null, null, Limit.of(50)),
+                CUSTOMER_ID, 0, null, null, null, null, null, null, 50), LOAN_INDEX);
+    }
+
+    // runs the repository query and explains the last statement Hibernate prepared for it
+    private String explainGenerated(Runnable query, Object... parameters) {
+        statementCapture.clear();
+        transactionTemplate.executeWithoutResult(status -> query.run());
+        return explain(statementCapture.last(), parameters);
+    }
+
+    private String explain(String sql, Object... parameters) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.toUpperCase(Locale.ROOT).contains(index), plan);
+    }
+
+    // an index seek on loan_id, H2 may pick the foreign key index or the composite one
+    private static void assertSeeksLoanId(String plan) {
+        assertTrue(plan.contains(": LOAN_ID ") && !plan.contains("tableScan"), plan);
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        @Bean
+        StatementCapture statementCapture() {
+            return new StatementCapture();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspector(StatementCapture statementCapture) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCapture);
+        }
+    }
+
+    static class StatementCapture implements StatementInspector {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        void clear() {
+            statements.clear();
+        }
+
+        String last() {
+            assertFalse(statements.isEmpty(), "no statement prepared");
+            return statements.get(statements.size() - 1);
+        }
+    }
+}
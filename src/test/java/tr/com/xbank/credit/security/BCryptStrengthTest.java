@@ -0,0 +1,35 @@
+package tr.com.xbank.credit.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BCryptStrengthTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    @DisplayName("Adaptive strength should be the highest whose hash fits the latency budget")
+    void calibrate_HighestWithinBudget() {
+        // 20, 40, 80 ms fit a 100 ms budget, 160 ms does not
+        assertEquals(12, BCryptStrength.calibrate(20 * MILLIS, 100 * MILLIS, 10));
+        assertEquals(10, BCryptStrength.calibrate(70 * MILLIS, 100 * MILLIS, 10));
+    }
+
+    @Test
+    @DisplayName("Adaptive strength should not go below the minimum or above 31")
+    void calibrate_Bounded() {
+        assertEquals(10, BCryptStrength.calibrate(500 * MILLIS, 100 * MILLIS, 10));
+        assertEquals(31, BCryptStrength.calibrate(1, Long.MAX_VALUE, 4));
+    }
+
+    @Test
+    @DisplayName("A fixed strength should be used as configured")
+    void resolve_FixedStrength() {
+        assertEquals(12, BCryptStrength.resolve("12", Duration.ofMillis(100), 10));
+        assertEquals(4, BCryptStrength.resolve("adaptive", Duration.ZERO, 4));
+    }
+}
@@ -0,0 +1,70 @@
+package tr.com.xbank.credit.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.service.LoanService;
+import tr.com.xbank.credit.support.CustomerFixture;
+
+import java.math.BigDecimal;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The default mode: no token filter in the chain, so even a validly signed bearer token is ignored.
+ */
+@Import(CustomerFixture.class)
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "app.security.auth-mode=basic")
+class BasicAuthModeTest {
+
+    private static final String CONTEXT_PATH = "/credit";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private CustomerFixture customers;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Test
+    @DisplayName("A signed bearer token should not authenticate in basic mode")
+    void request_BearerTokenIgnored() throws Exception {
+        Long customerId = customers.create("Basic", BigDecimal.valueOf(5000)).getId();
+        loanService.createLoan(new CreateLoanRequest(customerId, BigDecimal.valueOf(1200), BigDecimal.valueOf(0.1), 6));
+        String loans = CONTEXT_PATH + "/loans/customer/" + customerId;
+        String token = tokenService.issue(new UserPrincipal(1L, "admin", null, "ADMIN")).accessToken();
+
+        mockMvc.perform(get(loans).contextPath(CONTEXT_PATH)
+                        .header(HttpHeaders.AUTHORIZATION, TokenService.TOKEN_TYPE + " " + token))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get(loans).contextPath(CONTEXT_PATH).with(httpBasic("admin", "admin123")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Login should be refused when tokens are not enabled")
+    void login_NotEnabled() throws Exception {
+        mockMvc.perform(post(CONTEXT_PATH + "/customers/login").contextPath(CONTEXT_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"admin\",\"password\":\"admin123\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Token authentication is not enabled"));
+    }
+}
@@ -0,0 +1,105 @@
+package tr.com.xbank.credit.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CredentialCacheTest {
+
+    private static final String USERNAME = "alice";
+    private static final String PASSWORD = "secret";
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private SimpleMeterRegistry meterRegistry;
+    private CredentialCache credentialCache;
+    private CachingAuthenticationProvider authenticationProvider;
+    private UserPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        passwordEncoder = spy(new BCryptPasswordEncoder(4));
+        principal = new UserPrincipal(1L, USERNAME, passwordEncoder.encode(PASSWORD), "CUSTOMER");
+
+        DaoAuthenticationProvider delegate = new DaoAuthenticationProvider(passwordEncoder);
+        delegate.setUserDetailsService(username -> new UserPrincipal(
+                principal.getId(), principal.getUsername(), principal.getPassword(), "CUSTOMER"));
+
+        meterRegistry = new SimpleMeterRegistry();
+        credentialCache = new CredentialCache(meterRegistry, true, 100, Duration.ofMinutes(5));
+        authenticationProvider = new CachingAuthenticationProvider(delegate, credentialCache);
+    }
+
+    @Test
+    @DisplayName("A repeated login with the same password should be served without BCrypt")
+    void authenticate_HitSkipsBCrypt() {
+        Authentication first = authenticationProvider.authenticate(login(PASSWORD));
+        Authentication second = authenticationProvider.authenticate(login(PASSWORD));
+
+        assertSame(first.getPrincipal(), second.getPrincipal());
+        verify(passwordEncoder, times(1)).matches(any(), anyString());
+    }
+
+    @Test
+    @DisplayName("A wrong password should miss the cache and be rejected by BCrypt")
+    void authenticate_WrongPasswordMisses() {
+        authenticationProvider.authenticate(login(PASSWORD));
+
+        assertNull(credentialCache.get(USERNAME, "wrong"));
+        assertThrows(BadCredentialsException.class, () -> authenticationProvider.authenticate(login("wrong")));
+        verify(passwordEncoder, times(2)).matches(any(), anyString());
+    }
+
+    @Test
+    @DisplayName("A changed password hash should evict the user's entry, an unchanged one should keep it")
+    void invalidateIfPasswordChanged() {
+        authenticationProvider.authenticate(login(PASSWORD));
+
+        credentialCache.invalidateIfPasswordChanged(USERNAME, principal.getPassword());
+        assertEquals(USERNAME, credentialCache.get(USERNAME, PASSWORD).getUsername());
+
+        credentialCache.invalidateIfPasswordChanged(USERNAME, passwordEncoder.encode("changed"));
+        assertNull(credentialCache.get(USERNAME, PASSWORD));
+    }
+
+    @Test
+    @DisplayName("Hits and misses should be exported as auth.credentials cache metrics")
+    void metrics_HitsAndMissesExported() {
+        authenticationProvider.authenticate(login(PASSWORD));
+        authenticationProvider.authenticate(login(PASSWORD));
+        authenticationProvider.authenticate(login(PASSWORD));
+        assertThrows(BadCredentialsException.class, () -> authenticationProvider.authenticate(login("wrong")));
+
+        // the first login and the wrong password miss although the user has an entry for the second
+        assertEquals(2, cacheGets("hit"));
+        assertEquals(2, cacheGets("miss"));
+    }
+
+    private static UsernamePasswordAuthenticationToken login(String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(USERNAME, password);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tags("cache", "auth.credentials", "result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,97 @@
+package tr.com.xbank.credit.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.repository.CustomerRepository;
+import tr.com.xbank.credit.support.CustomerFixture;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Cached credentials are evicted once a password change commits, not when it is flushed.
+ */
+@Import(CustomerFixture.class)
+@SpringBootTest
+class CustomerCredentialListenerTest {
+
+    private static final String PASSWORD = "secret";
+
+    @Autowired
+    private CustomerFixture customers;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private CredentialCache credentialCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = customers.create("Listener", BigDecimal.valueOf(5000));
+        customer.setPassword(passwordEncoder.encode(PASSWORD));
+        customer = customerRepository.save(customer);
+
+        authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(customer.getUsername(), PASSWORD));
+    }
+
+    @Test
+    @DisplayName("A password change should evict the cached credential after commit")
+    void passwordChange_EvictsAfterCommit() {
+        String username = customer.getUsername();
+        assertNotNull(credentialCache.get(username, PASSWORD));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Customer loaded = customerRepository.findById(customer.getId()).orElseThrow();
+            loaded.setPassword(passwordEncoder.encode("changed"));
+            customerRepository.flush();
+
+            // flushed but not committed, logins still see the old hash
+            assertNotNull(credentialCache.get(username, PASSWORD));
+        });
+
+        assertNull(credentialCache.get(username, PASSWORD));
+        assertThrows(BadCredentialsException.class, () -> authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(username, PASSWORD)));
+    }
+
+    @Test
+    @DisplayName("A rolled back password change should keep the cached credential")
+    void passwordChange_RolledBack_KeepsEntry() {
+        String username = customer.getUsername();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Customer loaded = customerRepository.findById(customer.getId()).orElseThrow();
+            loaded.setPassword(passwordEncoder.encode("changed"));
+            customerRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertNotNull(credentialCache.get(username, PASSWORD));
+    }
+}
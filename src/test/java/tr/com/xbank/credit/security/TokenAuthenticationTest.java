@@ -0,0 +1,127 @@
+package tr.com.xbank.credit.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.dto.request.LoginRequest;
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.repository.CustomerRepository;
+import tr.com.xbank.credit.service.LoanService;
+import tr.com.xbank.credit.support.CustomerFixture;
+
+import java.math.BigDecimal;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Token mode end to end: {@code /customers/login} issues the token and the filter turns it into the
+ * {@code @AuthenticationPrincipal} the loan endpoints authorize against.
+ */
+@Import(CustomerFixture.class)
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "app.security.auth-mode=token")
+class TokenAuthenticationTest {
+
+    private static final String CONTEXT_PATH = "/credit";
+    private static final String PASSWORD = "secret";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerFixture customers;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = customers.create("Token", BigDecimal.valueOf(5000));
+        customer.setPassword(passwordEncoder.encode(PASSWORD));
+        customer = customerRepository.save(customer);
+        loanService.createLoan(new CreateLoanRequest(customer.getId(), BigDecimal.valueOf(1200), BigDecimal.valueOf(0.1), 6));
+    }
+
+    @Test
+    @DisplayName("A token from login should authenticate as the customer it was issued for")
+    void login_TokenResolvesPrincipal() throws Exception {
+        String token = login(customer.getUsername(), PASSWORD);
+
+        // the customer may only list their own loans, which needs the principal's id
+        mockMvc.perform(get(CONTEXT_PATH + "/loans/customer/" + customer.getId()).contextPath(CONTEXT_PATH)
+                        .header(HttpHeaders.AUTHORIZATION, TokenService.TOKEN_TYPE + " " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(CONTEXT_PATH + "/loans/customer/" + (customer.getId() + 1)).contextPath(CONTEXT_PATH)
+                        .header(HttpHeaders.AUTHORIZATION, TokenService.TOKEN_TYPE + " " + token))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.errors[0]").value("Access Denied"));
+    }
+
+    @Test
+    @DisplayName("An invalid token should be answered 401")
+    void request_InvalidToken() throws Exception {
+        mockMvc.perform(get(CONTEXT_PATH + "/loans/customer/" + customer.getId()).contextPath(CONTEXT_PATH)
+                        .header(HttpHeaders.AUTHORIZATION, TokenService.TOKEN_TYPE + " forged.token"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.errors[0]").value("Authentication failed: Invalid or expired token"));
+    }
+
+    @Test
+    @DisplayName("HTTP Basic should not be accepted in token mode")
+    void request_BasicCredentials() throws Exception {
+        mockMvc.perform(get(CONTEXT_PATH + "/loans/customer/" + customer.getId()).contextPath(CONTEXT_PATH)
+                        .with(httpBasic(customer.getUsername(), PASSWORD)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("A login with a wrong password should be answered 401")
+    void login_WrongPassword() throws Exception {
+        mockMvc.perform(post(CONTEXT_PATH + "/customers/login").contextPath(CONTEXT_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(loginBody(customer.getUsername(), "wrong")))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    private String login(String username, String password) throws Exception {
+        String body = mockMvc.perform(post(CONTEXT_PATH + "/customers/login").contextPath(CONTEXT_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(loginBody(username, password)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode data = objectMapper.readTree(body).get("data");
+        return data.get("accessToken").asText();
+    }
+
+    private String loginBody(String username, String password) throws Exception {
+        return objectMapper.writeValueAsString(new LoginRequest(username, password));
+    }
+}
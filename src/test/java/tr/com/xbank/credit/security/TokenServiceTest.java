@@ -0,0 +1,90 @@
+package tr.com.xbank.credit.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tr.com.xbank.credit.dto.response.TokenResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenServiceTest {
+
+    private static final String SECRET = "test-signing-key";
+
+    private final TokenService tokenService = new TokenService(AuthMode.TOKEN, SECRET, Duration.ofMinutes(15));
+
+    @Test
+    @DisplayName("A verified token should carry the principal it was issued for")
+    void issueAndVerify_RoundTrip() {
+        TokenResponse response = tokenService.issue(new UserPrincipal(7L, "mcetin", "hash", "CUSTOMER"));
+
+        UserPrincipal principal = tokenService.verify(response.accessToken());
+
+        assertEquals(TokenService.TOKEN_TYPE, response.tokenType());
+        assertEquals(900, response.expiresIn());
+        assertEquals(7L, principal.getId());
+        assertEquals("mcetin", principal.getUsername());
+        assertEquals("CUSTOMER", principal.getRole());
+        assertNull(principal.getPassword());
+    }
+
+    @Test
+    @DisplayName("A username containing the payload separator should survive the round trip")
+    void issueAndVerify_SeparatorInUsername() {
+        String token = tokenService.issue(new UserPrincipal(7L, "a|b|ADMIN", "hash", "CUSTOMER")).accessToken();
+
+        UserPrincipal principal = tokenService.verify(token);
+
+        assertEquals("a|b|ADMIN", principal.getUsername());
+        assertEquals("CUSTOMER", principal.getRole());
+    }
+
+    @Test
+    @DisplayName("A token with a tampered payload or signature should be rejected")
+    void verify_TamperedSignature() {
+        String token = tokenService.issue(new UserPrincipal(7L, "mcetin", "hash", "CUSTOMER")).accessToken();
+        int dot = token.indexOf('.');
+
+        String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+        String elevated = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                payload.replace("CUSTOMER", "ADMIN").getBytes(StandardCharsets.UTF_8));
+        // the first signature character, the low bits of the last one are padding and may decode the same
+        char first = token.charAt(dot + 1);
+
+        assertNull(tokenService.verify(elevated + token.substring(dot)));
+        assertNull(tokenService.verify(token.substring(0, dot + 1) + (first == 'A' ? 'B' : 'A') + token.substring(dot + 2)));
+        assertNull(new TokenService(AuthMode.TOKEN, "another-key", Duration.ofMinutes(15)).verify(token));
+    }
+
+    @Test
+    @DisplayName("An expired token should be rejected")
+    void verify_Expired() {
+        TokenService expiring = new TokenService(AuthMode.TOKEN, SECRET, Duration.ZERO);
+
+        assertNull(expiring.verify(expiring.issue(new UserPrincipal(7L, "mcetin", "hash", "CUSTOMER")).accessToken()));
+    }
+
+    @Test
+    @DisplayName("A malformed token should be rejected without an exception")
+    void verify_Malformed() {
+        assertNull(tokenService.verify(""));
+        assertNull(tokenService.verify("no-signature"));
+        assertNull(tokenService.verify(".signature"));
+        assertNull(tokenService.verify("payload."));
+        assertNull(tokenService.verify("not*base64.not*base64"));
+    }
+
+    @Test
+    @DisplayName("Tokens should only be enabled outside basic mode")
+    void isEnabled_ByAuthMode() {
+        assertFalse(new TokenService(AuthMode.BASIC, SECRET, Duration.ofMinutes(15)).isEnabled());
+        assertTrue(new TokenService(AuthMode.TOKEN, SECRET, Duration.ofMinutes(15)).isEnabled());
+        assertTrue(new TokenService(AuthMode.BOTH, SECRET, Duration.ofMinutes(15)).isEnabled());
+    }
+}
@@ -0,0 +1,162 @@
+package tr.com.xbank.credit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import tr.com.xbank.credit.dto.response.BulkLoanResult;
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.CustomerCredit;
+import tr.com.xbank.credit.repository.CustomerCreditRepository;
+import tr.com.xbank.credit.repository.LoanInstallmentRepository;
+import tr.com.xbank.credit.repository.LoanRepository;
+import tr.com.xbank.credit.support.CustomerFixture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import(CustomerFixture.class)
+@SpringBootTest(properties = "app.loan.bulk.chunk-size=3")
+class BulkLoanServiceTest {
+
+    @Autowired
+    private CustomerFixture customers;
+
+    @Autowired
+    private BulkLoanService bulkLoanService;
+
+    @Autowired
+    private CustomerCreditRepository customerCreditRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private LoanInstallmentRepository loanInstallmentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Customer customer;
+    private int flushes;
+
+    @BeforeEach
+    void setUp() {
+        customer = customers.create("Bulk", BigDecimal.valueOf(2500));
+    }
+
+    @Test
+    @DisplayName("Should report one result per record in input order")
+    void createLoans_MixedRecords() throws Exception {
+        String input = String.join("\n",
+                loan(customer.getId(), 1000, 6),
+                loan(customer.getId(), 1000, 7),
+                "{not json",
+                "",
+                loan(customer.getId(), 1000, 12),
+                loan(customer.getId(), 1000, 24),
+                loan(999_999L, 1000, 6));
+
+        List<BulkLoanResult> results = run(input);
+
+        assertEquals(List.of(1L, 2L, 3L, 5L, 6L, 7L), results.stream().map(BulkLoanResult::record).toList());
+
+        assertTrue(results.get(0).success());
+        assertNotNull(results.get(0).loanId());
+        assertEquals("Number of installments must be 6, 9, 12, or 24", results.get(1).error());
+        assertTrue(results.get(2).error().startsWith("Malformed record"));
+        assertTrue(results.get(3).success());
+        // only 500 of the 2500 limit left after records 1 and 5
+        assertEquals("Insufficient credit limit", results.get(4).error());
+        assertFalse(results.get(5).success());
+
+        CustomerCredit credit = customerCreditRepository.findById(customer.getId()).orElseThrow();
+        assertEquals(0, BigDecimal.valueOf(2000).compareTo(credit.getUsedCreditLimit()));
+        assertEquals(2, loanRepository.findByCustomerId(customer.getId()).size());
+        assertEquals(12, loanInstallmentRepository.findByLoanId(results.get(3).loanId()).size());
+    }
+
+    @Test
+    @DisplayName("Should reserve the credit limit once per customer across chunks")
+    void createLoans_AcrossChunks() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lines.add(loan(customer.getId(), 300, 9));
+        }
+
+        List<BulkLoanResult> results = run(String.join("\n", lines));
+
+        assertEquals(10, results.size());
+        assertEquals(8, results.stream().filter(BulkLoanResult::success).count());
+        assertEquals(0, BigDecimal.valueOf(2400).compareTo(
+                customerCreditRepository.findById(customer.getId()).orElseThrow().getUsedCreditLimit()));
+    }
+
+    @Test
+    @DisplayName("Should reject the records of a customer without a credit row as a data error")
+    void createLoans_CreditRecordMissing() throws Exception {
+        customerCreditRepository.deleteById(customer.getId());
+        Customer other = customers.create("Other", BigDecimal.valueOf(2500));
+
+        List<BulkLoanResult> results = run(loan(customer.getId(), 1000, 6) + "\n" + loan(other.getId(), 1000, 6));
+
+        assertEquals("Credit record of customer " + customer.getId() + " is missing", results.get(0).error());
+        assertTrue(results.get(1).success());
+    }
+
+    @Test
+    @DisplayName("Should flush rejected records with the chunk instead of buffering them until the end")
+    void createLoans_RejectionsFlushedPerChunk() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            lines.add("{not json");
+        }
+        lines.add(loan(customer.getId(), 300, 9));
+
+        List<BulkLoanResult> results = run(String.join("\n", lines));
+
+        assertEquals(8, results.size());
+        assertTrue(results.get(7).success());
+        // lines 1-3, 4-6 and 7-8 with a chunk size of 3
+        assertEquals(3, flushes);
+    }
+
+    private List<BulkLoanResult> run(String input) throws Exception {
+        // the response stream belongs to the servlet container and must stay open
+        ByteArrayOutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                throw new IllegalStateException("result stream closed by the service");
+            }
+
+            @Override
+            public void flush() {
+                flushes++;
+            }
+        };
+        bulkLoanService.createLoans(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        List<BulkLoanResult> results = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readValue(line, BulkLoanResult.class));
+        }
+        return results;
+    }
+
+    private static String loan(Long customerId, int amount, int installments) {
+        return "{\"customerId\":" + customerId + ",\"amount\":" + amount +
+                ",\"interestRate\":0.1,\"numberOfInstallments\":" + installments + "}";
+    }
+}
@@ -0,0 +1,157 @@
+package tr.com.xbank.credit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import tr.com.xbank.credit.dto.request.BulkPaymentRecord;
+import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.dto.response.BulkPaymentResult;
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.LoanInstallment;
+import tr.com.xbank.credit.repository.LoanInstallmentRepository;
+import tr.com.xbank.credit.support.CustomerFixture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * A single partition, so every row of the file goes through the same worker and its chunks.
+ */
+@Import(CustomerFixture.class)
+@SpringBootTest(properties = {
+        "app.loan.bulk.chunk-size=4",
+        "app.loan.bulk.payment-workers=1"
+})
+class BulkPaymentChunkingTest {
+
+    @Autowired
+    private CustomerFixture customers;
+
+    @Autowired
+    private BulkPaymentService bulkPaymentService;
+
+    @SpyBean
+    private LoanService loanService;
+
+    @Autowired
+    private LoanInstallmentRepository loanInstallmentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = customers.create("Chunking", BigDecimal.valueOf(100000));
+    }
+
+    @Test
+    @DisplayName("Should cut chunks between loans, never inside the payments of one loan")
+    void payLoans_ChunksAtLoanBoundaries() throws Exception {
+        Long first = createLoan();
+        Long second = createLoan();
+        Long third = createLoan();
+        clearInvocations(loanService);
+
+        List<BulkPaymentResult> results = run(payments(first, 3) + payments(second, 3) + payments(third, 2));
+
+        assertEquals(8, results.size());
+        assertTrue(results.stream().allMatch(BulkPaymentResult::success));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BulkPaymentRecord>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(loanService, times(3)).payLoans(chunks.capture());
+        assertEquals(List.of(List.of(first), List.of(second), List.of(third)),
+                chunks.getAllValues().stream().map(BulkPaymentChunkingTest::loanIds).toList());
+    }
+
+    @Test
+    @DisplayName("Should skip the later payments of a loan once one of them is rejected")
+    void payLoans_SkipsAfterRejection() throws Exception {
+        Long loanId = createLoan();
+        clearInvocations(loanService);
+
+        // six rows, more than a chunk, and the first one cannot pay an installment of 55.00
+        List<BulkPaymentResult> results = run("loanId,amount\n" + loanId + ",10\n" + payments(loanId, 5));
+
+        assertEquals(6, results.size());
+        assertEquals("Payment amount is insufficient for any installment", results.get(0).error());
+        for (BulkPaymentResult result : results.subList(1, 6)) {
+            assertFalse(result.success());
+            assertEquals("Skipped, an earlier payment of the loan was rejected", result.error());
+        }
+
+        // the rows after the first chunk are skipped without another transaction
+        verify(loanService, times(1)).payLoans(anyList());
+        assertTrue(loanInstallmentRepository.findByLoanId(loanId).stream().noneMatch(LoanInstallment::isPaid));
+    }
+
+    @Test
+    @DisplayName("Should only reject the loan whose payments fail the transaction")
+    void payLoans_FailingLoanDoesNotRejectOthers() throws Exception {
+        Long first = createLoan();
+        Long failing = createLoan();
+        Long third = createLoan();
+        doAnswer(invocation -> {
+            List<BulkPaymentRecord> chunk = invocation.getArgument(0);
+            if (loanIds(chunk).contains(failing)) {
+                throw new IllegalStateException("connection reset");
+            }
+            return invocation.callRealMethod();
+        }).when(loanService).payLoans(anyList());
+
+        List<BulkPaymentResult> results = run(payments(first, 1) + payments(failing, 1) + payments(third, 1));
+
+        assertTrue(results.get(0).success());
+        assertEquals("Payment failed: connection reset", results.get(1).error());
+        assertTrue(results.get(2).success());
+        assertEquals(1, loanInstallmentRepository.findByLoanId(first).stream().filter(LoanInstallment::isPaid).count());
+        assertEquals(1, loanInstallmentRepository.findByLoanId(third).stream().filter(LoanInstallment::isPaid).count());
+    }
+
+    private Long createLoan() {
+        // 24 installments of 55.00, three of them inside the payment window
+        return loanService.createLoan(new CreateLoanRequest(
+                customer.getId(), BigDecimal.valueOf(1200), BigDecimal.valueOf(0.1), 24)).id();
+    }
+
+    private static String payments(Long loanId, int count) {
+        return (loanId + ",55\n").repeat(count);
+    }
+
+    private static List<Long> loanIds(List<BulkPaymentRecord> chunk) {
+        return chunk.stream().map(r -> r.request().loanId()).distinct().toList();
+    }
+
+    private List<BulkPaymentResult> run(String input) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        bulkPaymentService.payLoans(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                BulkPaymentService.Format.CSV, output);
+
+        List<BulkPaymentResult> results = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readValue(line, BulkPaymentResult.class));
+        }
+        return results;
+    }
+}
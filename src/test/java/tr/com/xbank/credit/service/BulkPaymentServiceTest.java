@@ -0,0 +1,156 @@
+package tr.com.xbank.credit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.dto.response.BulkPaymentResult;
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.Loan;
+import tr.com.xbank.credit.entity.LoanInstallment;
+import tr.com.xbank.credit.repository.CustomerCreditRepository;
+import tr.com.xbank.credit.repository.LoanInstallmentRepository;
+import tr.com.xbank.credit.repository.LoanRepository;
+import tr.com.xbank.credit.support.CustomerFixture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import(CustomerFixture.class)
+@SpringBootTest(properties = {
+        "app.loan.bulk.chunk-size=4",
+        "app.loan.bulk.payment-workers=4"
+})
+class BulkPaymentServiceTest {
+
+    @Autowired
+    private CustomerFixture customers;
+
+    @Autowired
+    private BulkPaymentService bulkPaymentService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private CustomerCreditRepository customerCreditRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private LoanInstallmentRepository loanInstallmentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = customers.create("Settlement", BigDecimal.valueOf(100000));
+    }
+
+    @Test
+    @DisplayName("Should apply the payments of each loan in file order across partitions")
+    void payLoans_KeepsPerLoanOrder() throws Exception {
+        List<Long> loanIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            loanIds.add(createLoan(24));
+        }
+
+        // 24 installments of 55.00, only three are inside the payment window
+        StringBuilder file = new StringBuilder("loanId,amount\n");
+        for (int round = 0; round < 4; round++) {
+            for (Long loanId : loanIds) {
+                file.append(loanId).append(",80\n");
+            }
+        }
+        file.append("abc,1\n");
+
+        List<BulkPaymentResult> results = run(file.toString(), BulkPaymentService.Format.CSV);
+
+        assertEquals(41, results.size());
+        assertEquals(2, results.get(0).record());
+        for (int round = 0; round < 4; round++) {
+            for (int loan = 0; loan < loanIds.size(); loan++) {
+                BulkPaymentResult result = results.get(round * loanIds.size() + loan);
+                assertEquals(loanIds.get(loan), result.loanId());
+                assertEquals(round < 3, result.success());
+            }
+        }
+        assertEquals("No eligible installments found for payment processing", results.get(30).error());
+        assertEquals("Malformed record: expected loanId,amount", results.get(40).error());
+
+        for (Long loanId : loanIds) {
+            List<LoanInstallment> installments = loanInstallmentRepository.findByLoanId(loanId);
+            assertEquals(3, installments.stream().filter(LoanInstallment::isPaid).count());
+
+            // every loaded installment was paid, the next due date comes after the last of them
+            Loan loan = loanRepository.findById(loanId).orElseThrow();
+            assertEquals(21, loan.getUnpaidInstallmentCount());
+            assertEquals(0, BigDecimal.valueOf(1155).compareTo(loan.getOutstandingAmount()));
+            assertEquals(installments.stream().filter(i -> !i.isPaid()).map(LoanInstallment::getDueDate)
+                    .min(Comparator.naturalOrder()).orElseThrow(), loan.getNextDueDate());
+        }
+    }
+
+    @Test
+    @DisplayName("Should close paid off loans and release the credit limit")
+    void payLoans_FullyPaid() throws Exception {
+        Long loanId = createLoan(6);
+        List<LoanInstallment> installments = loanInstallmentRepository.findByLoanId(loanId);
+        installments.forEach(installment -> installment.setDueDate(LocalDate.now()));
+        loanInstallmentRepository.saveAll(installments);
+
+        // 6 installments of 220.00, all due today
+        String file = "{\"loanId\":" + loanId + ",\"amount\":250}\n" +
+                "{\"loanId\":" + loanId + ",\"amount\":1100}\n" +
+                "{\"loanId\":" + loanId + ",\"amount\":1000}\n" +
+                "{\"loanId\":" + loanId + ",\"amount\":-5}\n";
+
+        List<BulkPaymentResult> results = run(file, BulkPaymentService.Format.NDJSON);
+
+        assertEquals(4, results.size());
+        assertEquals(1, results.get(0).installmentsPaid());
+        assertFalse(results.get(0).isLoanFullyPaid());
+        assertEquals(5, results.get(1).installmentsPaid());
+        assertTrue(results.get(1).isLoanFullyPaid());
+        assertEquals("Loan is already fully paid", results.get(2).error());
+        assertEquals("Payment amount must be positive", results.get(3).error());
+
+        assertTrue(loanRepository.findById(loanId).orElseThrow().isPaid());
+        assertEquals(0, BigDecimal.ZERO.compareTo(
+                customerCreditRepository.findById(customer.getId()).orElseThrow().getUsedCreditLimit()));
+    }
+
+    private Long createLoan(int installments) {
+        return loanService.createLoan(
+                new CreateLoanRequest(customer.getId(), BigDecimal.valueOf(1200), BigDecimal.valueOf(0.1), installments)).id();
+    }
+
+    private List<BulkPaymentResult> run(String input, BulkPaymentService.Format format) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        bulkPaymentService.payLoans(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), format, output);
+
+        List<BulkPaymentResult> results = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readValue(line, BulkPaymentResult.class));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,100 @@
+package tr.com.xbank.credit.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.CustomerCredit;
+import tr.com.xbank.credit.repository.CustomerCreditRepository;
+import tr.com.xbank.credit.repository.LoanRepository;
+import tr.com.xbank.credit.support.CustomerFixture;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires many concurrent createLoan calls at a single customer and checks that the credit limit is
+ * never overrun and no reservation is lost. Throughput is logged for comparison between runs.
+ */
+@Slf4j
+@Import(CustomerFixture.class)
+@SpringBootTest
+class CreditLimitContentionTest {
+
+    private static final int THREADS = 16;
+    private static final int REQUESTS = 200;
+    private static final int LOANS_THAT_FIT = 50;
+    private static final BigDecimal LOAN_AMOUNT = BigDecimal.valueOf(1000);
+
+    @Autowired
+    private CustomerFixture customers;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private CustomerCreditRepository customerCreditRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Test
+    @DisplayName("Concurrent loan creation should reserve exactly the available credit limit")
+    void createLoan_ConcurrentReservationsAreExact() throws Exception {
+        Customer customer = customers.create("Contention", LOAN_AMOUNT.multiply(BigDecimal.valueOf(LOANS_THAT_FIT)));
+        CreateLoanRequest request = new CreateLoanRequest(customer.getId(), LOAN_AMOUNT, BigDecimal.valueOf(0.1), 6);
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    loanService.createLoan(request);
+                    created.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        CustomerCredit credit = customerCreditRepository.findById(customer.getId()).orElseThrow();
+
+        log.info("createLoan contention: {} requests on {} threads in {} ms ({} ops/s), {} created, {} rejected",
+                REQUESTS, THREADS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                String.format("%.1f", REQUESTS / (elapsedNanos / 1_000_000_000.0)), created.get(), rejected.get());
+
+        assertEquals(LOANS_THAT_FIT, created.get());
+        assertEquals(REQUESTS - LOANS_THAT_FIT, rejected.get());
+        assertEquals(0, customer.getCreditLimit().compareTo(credit.getUsedCreditLimit()));
+        assertEquals(LOANS_THAT_FIT, loanRepository.findByCustomerId(customer.getId()).size());
+        assertTrue(credit.getVersion() >= LOANS_THAT_FIT);
+    }
+}
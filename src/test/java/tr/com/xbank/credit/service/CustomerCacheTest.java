@@ -0,0 +1,99 @@
+package tr.com.xbank.credit.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.repository.CustomerCreditRepository;
+import tr.com.xbank.credit.repository.CustomerRepository;
+import tr.com.xbank.credit.support.CustomerFixture;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Customer profiles are served from the second-level cache by id and by username, while the used
+ * credit limit is read and written uncached.
+ */
+@Import(CustomerFixture.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CustomerCacheTest {
+
+    @Autowired
+    private CustomerFixture customers;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerCreditRepository customerCreditRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        customer = customers.create("Cached", BigDecimal.valueOf(5000));
+    }
+
+    @Test
+    @DisplayName("Authentication lookups by username should hit the cache after the first one")
+    void loadUserByUsername_Cached() {
+        userDetailsService.loadUserByUsername(customer.getUsername());
+
+        statistics.clear();
+        userDetailsService.loadUserByUsername(customer.getUsername());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getNaturalIdCacheHitCount());
+    }
+
+    @Test
+    @DisplayName("Reserving credit should neither evict the customer nor be served stale")
+    void createLoan_KeepsProfileCachedAndCreditConsistent() {
+        createLoan(BigDecimal.valueOf(1000));
+        createLoan(BigDecimal.valueOf(1500));
+
+        statistics.clear();
+        customerRepository.findById(customer.getId());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(0, BigDecimal.valueOf(2500).compareTo(
+                customerCreditRepository.findById(customer.getId()).orElseThrow().getUsedCreditLimit()));
+    }
+
+    @Test
+    @DisplayName("Profile updates should be visible to later lookups")
+    void save_UpdatesCachedProfile() {
+        userDetailsService.loadUserByUsername(customer.getUsername());
+
+        customer.setPassword("changed");
+        customerRepository.save(customer);
+
+        assertEquals("changed", userDetailsService.loadUserByUsername(customer.getUsername()).getPassword());
+    }
+
+    private void createLoan(BigDecimal amount) {
+        loanService.createLoan(new CreateLoanRequest(customer.getId(), amount, BigDecimal.valueOf(0.1), 6));
+    }
+}
@@ -0,0 +1,107 @@
+package tr.com.xbank.credit.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tr.com.xbank.credit.dto.request.CustomerRegistrationRequest;
+import tr.com.xbank.credit.dto.response.CustomerDto;
+import tr.com.xbank.credit.repository.CustomerCreditRepository;
+import tr.com.xbank.credit.repository.CustomerRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+
+@SpringBootTest
+class CustomerRegistrationTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @SpyBean
+    private CustomerRepository customerRepository;
+
+    @SpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private CustomerCreditRepository customerCreditRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Registration should hash the password on the hashing pool outside any transaction")
+    void registerCustomer_HashesOutsideTransaction() {
+        AtomicReference<String> hashingThread = new AtomicReference<>();
+        AtomicBoolean inTransaction = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            hashingThread.set(Thread.currentThread().getName());
+            inTransaction.set(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).encode(any());
+
+        CustomerDto customer = customerService.registerCustomer(request("hashing", "hashing@example.com"));
+
+        assertTrue(hashingThread.get().startsWith("password-hash-"), hashingThread.get());
+        assertFalse(inTransaction.get());
+        assertTrue(passwordEncoder.matches("secret123", customerRepository.findById(customer.id()).orElseThrow().getPassword()));
+        assertTrue(customerCreditRepository.findById(customer.id()).isPresent());
+        assertEquals(0, BigDecimal.ZERO.compareTo(customer.usedCreditLimit()));
+    }
+
+    @Test
+    @DisplayName("Registration should reject a taken username or email before hashing")
+    void registerCustomer_RejectsDuplicates() {
+        customerService.registerCustomer(request("duplicate", "duplicate@example.com"));
+
+        IllegalArgumentException username = assertThrows(IllegalArgumentException.class,
+                () -> customerService.registerCustomer(request("duplicate", "other@example.com")));
+        IllegalArgumentException email = assertThrows(IllegalArgumentException.class,
+                () -> customerService.registerCustomer(request("other", "duplicate@example.com")));
+
+        assertEquals("Username already exists", username.getMessage());
+        assertEquals("Email already exists", email.getMessage());
+    }
+
+    @Test
+    @DisplayName("A duplicate registered after the check should be rejected by the unique constraints")
+    void registerCustomer_RejectsConcurrentDuplicates() {
+        customerService.registerCustomer(request("concurrent", "concurrent@example.com"));
+        long customers = countCustomers();
+        // as if the other registration committed between the check and the insert
+        doReturn(List.of()).when(customerRepository).findByUsernameOrEmail(any(), any());
+
+        IllegalArgumentException username = assertThrows(IllegalArgumentException.class,
+                () -> customerService.registerCustomer(request("concurrent", "another@example.com")));
+        IllegalArgumentException email = assertThrows(IllegalArgumentException.class,
+                () -> customerService.registerCustomer(request("another", "concurrent@example.com")));
+
+        assertEquals("Username already exists", username.getMessage());
+        assertEquals("Email already exists", email.getMessage());
+        assertEquals(customers, countCustomers());
+        assertEquals(customers, (long) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_credits", Long.class));
+    }
+
+    private long countCustomers() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customers", Long.class);
+    }
+
+    private static CustomerRegistrationRequest request(String username, String email) {
+        return new CustomerRegistrationRequest("Registration", "Test", username, "secret123", email);
+    }
+}
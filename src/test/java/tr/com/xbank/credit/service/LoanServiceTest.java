@@ -1,28 +1,41 @@
 package tr.com.xbank.credit.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.dto.request.LoanFilter;
 import tr.com.xbank.credit.dto.request.PayLoanRequest;
 import tr.com.xbank.credit.dto.response.InstallmentDto;
 import tr.com.xbank.credit.dto.response.LoanDto;
+import tr.com.xbank.credit.dto.response.LoanPage;
 import tr.com.xbank.credit.dto.response.PaymentResult;
+import tr.com.xbank.credit.dto.response.PayoffQuote;
 import tr.com.xbank.credit.entity.Customer;
 import tr.com.xbank.credit.entity.Loan;
 import tr.com.xbank.credit.entity.LoanInstallment;
 import tr.com.xbank.credit.exception.ResourceNotFoundException;
+import tr.com.xbank.credit.repository.CustomerCreditRepository;
 import tr.com.xbank.credit.repository.CustomerRepository;
 import tr.com.xbank.credit.repository.LoanInstallmentRepository;
 import tr.com.xbank.credit.repository.LoanRepository;
+import tr.com.xbank.credit.service.cache.InstallmentScheduleCache;
 import tr.com.xbank.credit.service.impl.LoanServiceImpl;
+import tr.com.xbank.credit.service.lock.PaymentLock;
+import tr.com.xbank.credit.service.metrics.LoanMetrics;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -34,6 +47,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -43,12 +58,27 @@ class LoanServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private CustomerCreditRepository customerCreditRepository;
+
     @Mock
     private LoanRepository loanRepository;
 
     @Mock
     private LoanInstallmentRepository loanInstallmentRepository;
 
+    @Mock
+    private PaymentLock paymentLock;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private LoanMetrics loanMetrics = new LoanMetrics(meterRegistry);
+
+    @Spy
+    private InstallmentScheduleCache installmentScheduleCache =
+            new InstallmentScheduleCache(meterRegistry, Optional.empty(), true, 100, Duration.ofMinutes(1));
+
     @InjectMocks
     private LoanServiceImpl loanService;
 
@@ -64,7 +94,6 @@ class LoanServiceTest {
         customer.setName("John");
         customer.setSurname("Doe");
         customer.setCreditLimit(BigDecimal.valueOf(10000));
-        customer.setUsedCreditLimit(BigDecimal.ZERO);
 
         loan = new Loan();
         loan.setId(1L);
@@ -74,6 +103,9 @@ class LoanServiceTest {
         loan.setNumberOfInstallment(6);
         loan.setCreateDate(LocalDateTime.now());
         loan.setPaid(false);
+        loan.setUnpaidInstallmentCount(1);
+        loan.setOutstandingAmount(BigDecimal.valueOf(183.33));
+        loan.setNextDueDate(LocalDate.now().plusMonths(1));
 
         LoanInstallment installment = new LoanInstallment();
         installment.setId(1L);
@@ -101,6 +133,7 @@ class LoanServiceTest {
         @DisplayName("Should successfully create a loan")
         void createLoan_Success() {
             when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+            when(customerCreditRepository.reserveCreditLimit(1L, validLoanRequest.amount())).thenReturn(1);
             when(loanRepository.save(any(Loan.class))).thenReturn(loan);
             when(loanInstallmentRepository.saveAll(any())).thenReturn(installments);
 
@@ -109,7 +142,39 @@ class LoanServiceTest {
             assertNotNull(result);
             assertEquals(loan.getId(), result.id());
             assertEquals(loan.getLoanAmount(), result.loanAmount());
-            verify(customerRepository).save(any(Customer.class));
+            verify(customerCreditRepository).reserveCreditLimit(1L, validLoanRequest.amount());
+
+            ArgumentCaptor<Loan> saved = ArgumentCaptor.forClass(Loan.class);
+            verify(loanRepository).save(saved.capture());
+            assertEquals(6, saved.getValue().getUnpaidInstallmentCount());
+            assertEquals(new BigDecimal("1099.98"), saved.getValue().getOutstandingAmount());
+            assertEquals(LocalDate.now().withDayOfMonth(1).plusMonths(1), saved.getValue().getNextDueDate());
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when credit reservation loses a race")
+        void createLoan_CreditReservationRejected() {
+            when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+            when(customerCreditRepository.reserveCreditLimit(1L, validLoanRequest.amount())).thenReturn(0);
+            when(customerCreditRepository.existsById(1L)).thenReturn(true);
+
+            assertThrows(IllegalArgumentException.class, () -> loanService.createLoan(validLoanRequest));
+            verify(loanRepository, never()).save(any(Loan.class));
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalStateException rather than reject the limit when the credit row is missing")
+        void createLoan_CreditRecordMissing() {
+            when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+            when(customerCreditRepository.reserveCreditLimit(1L, validLoanRequest.amount())).thenReturn(0);
+            when(customerCreditRepository.existsById(1L)).thenReturn(false);
+
+            IllegalStateException exception =
+                    assertThrows(IllegalStateException.class, () -> loanService.createLoan(validLoanRequest));
+            assertEquals("Credit record of customer 1 is missing", exception.getMessage());
+            assertEquals(0, meterRegistry.get("credit.loan.rejections")
+                    .tag("reason", "insufficient_credit_limit").counter().count());
+            verify(loanRepository, never()).save(any(Loan.class));
         }
 
         @Test
@@ -123,10 +188,14 @@ class LoanServiceTest {
         @Test
         @DisplayName("Should throw IllegalArgumentException when credit limit is insufficient")
         void createLoan_InsufficientCreditLimit() {
-            customer.setUsedCreditLimit(BigDecimal.valueOf(9500));
+            customer.setCreditLimit(BigDecimal.valueOf(500));
             when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+            when(customerCreditRepository.reserveCreditLimit(1L, validLoanRequest.amount())).thenReturn(0);
+            when(customerCreditRepository.existsById(1L)).thenReturn(true);
 
             assertThrows(IllegalArgumentException.class, () -> loanService.createLoan(validLoanRequest));
+            assertEquals(1, meterRegistry.get("credit.loan.rejections")
+                    .tag("reason", "insufficient_credit_limit").counter().count());
         }
     }
 
@@ -142,14 +211,18 @@ class LoanServiceTest {
             when(loanRepository.findById(1L)).thenReturn(Optional.of(loan));
             when(loanInstallmentRepository.findUnpaidInstallmentsByLoanIdAndMaxDueDate(eq(1L), any()))
                     .thenReturn(installments);
-            when(loanInstallmentRepository.countUnpaidInstallmentsByLoanId(1L)).thenReturn(0L);
 
             PaymentResult result = loanService.payLoanInstallments(request);
 
             assertNotNull(result);
             assertEquals(1, result.installmentsPaid());
             assertTrue(result.isLoanFullyPaid());
+            assertEquals(0, loan.getUnpaidInstallmentCount());
+            assertEquals(0, BigDecimal.ZERO.compareTo(loan.getOutstandingAmount()));
+            assertNull(loan.getNextDueDate());
             verify(loanInstallmentRepository).saveAll(any());
+            assertEquals(1, meterRegistry.get("credit.loan.payment.installments")
+                    .tag("operation", "pay").summary().totalAmount());
         }
 
         @Test
@@ -181,22 +254,49 @@ class LoanServiceTest {
         @Test
         @DisplayName("Should return list of loans for customer")
         void getLoansByCustomerId_Success() {
-            when(loanRepository.findByCustomerId(1L)).thenReturn(Collections.singletonList(loan));
+            when(loanRepository.findPageByCustomerId(eq(1L), eq(0L), any(), any(), any(), any(Limit.class)))
+                    .thenReturn(Collections.singletonList(LoanDto.mapLoanToDto(loan)));
 
-            List<LoanDto> result = loanService.getLoansByCustomerId(1L);
+            LoanPage result = loanService.getLoansByCustomerId(1L, LoanFilter.firstPage());
 
             assertNotNull(result);
-            assertFalse(result.isEmpty());
-            assertEquals(1, result.size());
-            assertEquals(loan.getId(), result.get(0).id());
+            assertFalse(result.loans().isEmpty());
+            assertEquals(1, result.loans().size());
+            assertEquals(loan.getId(), result.loans().get(0).id());
+            assertNull(result.nextAfter());
+        }
+
+        @Test
+        @DisplayName("Should return the id to continue after when more loans follow")
+        void getLoansByCustomerId_NextPage() {
+            Loan second = new Loan();
+            second.setId(2L);
+            second.setCustomer(customer);
+            when(loanRepository.findPageByCustomerId(1L, 0L, null, null, null, Limit.of(2)))
+                    .thenReturn(Arrays.asList(LoanDto.mapLoanToDto(loan), LoanDto.mapLoanToDto(second)));
+
+            LoanPage result = loanService.getLoansByCustomerId(1L, new LoanFilter(null, null, null, null, 1));
+
+            assertEquals(1, result.loans().size());
+            assertEquals(1L, result.nextAfter());
         }
 
         @Test
         @DisplayName("Should return empty list when no loans found")
         void getLoansByCustomerId_NoLoansFound() {
-            when(loanRepository.findByCustomerId(1L)).thenReturn(Collections.emptyList());
+            when(loanRepository.findPageByCustomerId(eq(1L), eq(0L), any(), any(), any(), any(Limit.class)))
+                    .thenReturn(Collections.emptyList());
+
+            assertThrows(ResourceNotFoundException.class,
+                    () -> loanService.getLoansByCustomerId(1L, LoanFilter.firstPage()));
+        }
 
-            assertThrows(ResourceNotFoundException.class, () -> loanService.getLoansByCustomerId(1L));
+        @Test
+        @DisplayName("Should reject a creation date range that ends before it starts")
+        void getLoansByCustomerId_InvalidDateRange() {
+            LoanFilter filter = new LoanFilter(null, LocalDate.now(), LocalDate.now().minusDays(1), null, null);
+
+            assertThrows(IllegalArgumentException.class, () -> loanService.getLoansByCustomerId(1L, filter));
         }
     }
 
@@ -207,7 +307,9 @@ class LoanServiceTest {
         @Test
         @DisplayName("Should return list of installments for loan")
         void getLoanInstallments_Success() {
-            when(loanInstallmentRepository.findByLoanId(1L)).thenReturn(installments);
+            InstallmentDto installment = new InstallmentDto(installments.get(0).getId(), loan.getId(),
+                    installments.get(0).getAmount(), null, installments.get(0).getDueDate(), null, false);
+            when(loanInstallmentRepository.findInstallmentDtosByLoanId(1L)).thenReturn(List.of(installment));
 
             List<InstallmentDto> result = loanService.getLoanInstallments(1L);
 
@@ -217,12 +319,71 @@ class LoanServiceTest {
             assertEquals(installments.get(0).getId(), result.get(0).id());
         }
 
+        @Test
+        @DisplayName("Should serve repeated reads from the cache")
+        void getLoanInstallments_Cached() {
+            InstallmentDto installment = new InstallmentDto(installments.get(0).getId(), loan.getId(),
+                    installments.get(0).getAmount(), null, installments.get(0).getDueDate(), null, false);
+            when(loanInstallmentRepository.findInstallmentDtosByLoanId(1L)).thenReturn(List.of(installment));
+
+            loanService.getLoanInstallments(1L);
+            List<InstallmentDto> result = loanService.getLoanInstallments(1L);
+
+            assertEquals(List.of(installment), result);
+            verify(loanInstallmentRepository, times(1)).findInstallmentDtosByLoanId(1L);
+        }
+
         @Test
         @DisplayName("Should throw ResourceNotFoundException when no installments found")
         void getLoanInstallments_NoInstallmentsFound() {
-            when(loanInstallmentRepository.findByLoanId(1L)).thenReturn(Collections.emptyList());
+            when(loanInstallmentRepository.findInstallmentDtosByLoanId(1L)).thenReturn(Collections.emptyList());
 
             assertThrows(ResourceNotFoundException.class, () -> loanService.getLoanInstallments(1L));
         }
     }
+
+    @Nested
+    @DisplayName("Payoff Quote Tests")
+    class PayoffQuoteTests {
+
+        @Test
+        @DisplayName("Should quote the eligible unpaid installments with today's adjustments")
+        void getPayoffQuote_Success() {
+            LocalDate today = LocalDate.now();
+            when(loanInstallmentRepository.findInstallmentDtosByLoanId(1L)).thenReturn(List.of(
+                    scheduled(1L, today.minusDays(20), true),
+                    scheduled(2L, today.minusDays(10), false),
+                    scheduled(3L, today, false),
+                    scheduled(4L, today.plusDays(5), false),
+                    scheduled(5L, today.plusMonths(4), false)));
+
+            PayoffQuote quote = loanService.getPayoffQuote(1L);
+
+            assertEquals(today, quote.asOf());
+            assertEquals(3, quote.installmentCount());
+            assertEquals(new BigDecimal("300.50000"), quote.totalPayable());
+            assertEquals(List.of(2L, 3L, 4L), quote.installments().stream().map(PayoffQuote.Installment::id).toList());
+            assertEquals(List.of(new BigDecimal("101.00000"), new BigDecimal("100.00"), new BigDecimal("99.50000")),
+                    quote.installments().stream().map(PayoffQuote.Installment::payableAmount).toList());
+            assertEquals(List.of(new BigDecimal("101.00000"), new BigDecimal("201.00000"), new BigDecimal("300.50000")),
+                    quote.installments().stream().map(PayoffQuote.Installment::cumulativePayable).toList());
+            verify(loanRepository, never()).findById(any());
+        }
+
+        @Test
+        @DisplayName("Should throw ResourceNotFoundException when no installment is eligible")
+        void getPayoffQuote_NoEligibleInstallments() {
+            LocalDate today = LocalDate.now();
+            when(loanInstallmentRepository.findInstallmentDtosByLoanId(1L)).thenReturn(List.of(
+                    scheduled(1L, today.minusDays(20), true),
+                    scheduled(2L, today.plusMonths(4), false)));
+
+            assertThrows(ResourceNotFoundException.class, () -> loanService.getPayoffQuote(1L));
+        }
+
+        private InstallmentDto scheduled(Long id, LocalDate dueDate, boolean paid) {
+            return new InstallmentDto(id, 1L, new BigDecimal("100.00"), paid ? new BigDecimal("100.00") : BigDecimal.ZERO,
+                    dueDate, paid ? dueDate : null, paid);
+        }
+    }
 }
@@ -0,0 +1,164 @@
+package tr.com.xbank.credit.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.dto.request.LoanFilter;
+import tr.com.xbank.credit.dto.request.PayLoanRequest;
+import tr.com.xbank.credit.dto.response.LoanDto;
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.security.LoanSecurityService;
+import tr.com.xbank.credit.support.CustomerFixture;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts JDBC statements prepared per createLoan and payLoanInstallments call. With sequence ids and
+ * JDBC batching the counts must not grow with the number of installments written. Reads are checked
+ * to go through DTO projections, installment schedules to be cached until a write commits and loan
+ * ownership checks to select the owner id once.
+ */
+@Slf4j
+@Import(CustomerFixture.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class LoanStatementCountTest {
+
+    // each measurement is repeated and the minimum kept, so an occasional pooled sequence fetch does not count
+    private static final int REPETITIONS = 3;
+
+    @Autowired
+    private CustomerFixture customers;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanSecurityService loanSecurityService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        customer = customers.create("Statement", BigDecimal.valueOf(1_000_000));
+    }
+
+    @Test
+    @DisplayName("createLoan should prepare the same number of statements for any installment count")
+    void createLoan_StatementCountIsConstant() {
+        Map<Integer, Long> statementsByInstallments = new LinkedHashMap<>();
+        for (int installments : new int[]{6, 9, 12, 24}) {
+            statementsByInstallments.put(installments, minStatements(() -> createLoan(installments)));
+        }
+
+        log.info("Statements per createLoan by installment count: {}", statementsByInstallments);
+
+        assertEquals(1, statementsByInstallments.values().stream().distinct().count());
+    }
+
+    @Test
+    @DisplayName("payLoanInstallments should batch installment updates")
+    void payLoanInstallments_StatementCountIsConstant() {
+        // 24 installments of 55.00 due monthly, only the first three are eligible for payment
+        long oneInstallment = minPaymentStatements(BigDecimal.valueOf(60));
+        long threeInstallments = minPaymentStatements(BigDecimal.valueOf(170));
+
+        log.info("Statements per payLoanInstallments: 1 installment={}, 3 installments={}",
+                oneInstallment, threeInstallments);
+
+        assertEquals(oneInstallment, threeInstallments);
+    }
+
+    @Test
+    @DisplayName("Read endpoints should select DTOs in one statement without loading entities")
+    void readEndpoints_ProjectIntoDtos() {
+        Long loanId = createLoan(12).id();
+
+        statistics.clear();
+        loanService.getLoansByCustomerId(customer.getId(), LoanFilter.firstPage());
+        loanService.getLoanInstallments(loanId);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("Installment schedules should be read once and evicted when a payment commits")
+    void getLoanInstallments_CachedUntilPaymentCommits() {
+        Long loanId = createLoan(12).id();
+
+        assertEquals(1, statements(() -> loanService.getLoanInstallments(loanId)));
+        assertEquals(0, statements(() -> loanService.getLoanInstallments(loanId)));
+
+        loanService.payLoanInstallments(new PayLoanRequest(loanId, BigDecimal.valueOf(110)));
+
+        assertEquals(1, statements(() -> loanService.getLoanInstallments(loanId)));
+        assertTrue(loanService.getLoanInstallments(loanId).get(0).isPaid());
+    }
+
+    @Test
+    @DisplayName("Loan ownership checks should select only the owner id and be cached afterwards")
+    void isLoanOwner_SelectsOwnerIdOnceThenCached() {
+        Long loanId = createLoan(6).id();
+
+        statistics.clear();
+        assertTrue(loanSecurityService.isLoanOwner(loanId, customer.getId()));
+
+        // a scalar query, loading the loan through findById would count an entity load instead
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        assertEquals(0, statements(() -> loanSecurityService.isLoanOwner(loanId, customer.getId())));
+        assertEquals(0, statements(() -> loanSecurityService.isLoanOwner(loanId, customer.getId() + 1)));
+        assertFalse(loanSecurityService.isLoanOwner(loanId, customer.getId() + 1));
+    }
+
+    private LoanDto createLoan(int installments) {
+        return loanService.createLoan(
+                new CreateLoanRequest(customer.getId(), BigDecimal.valueOf(1200), BigDecimal.valueOf(0.1), installments));
+    }
+
+    private long minPaymentStatements(BigDecimal amount) {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < REPETITIONS; i++) {
+            Long loanId = createLoan(24).id();
+            min = Math.min(min, statements(() -> loanService.payLoanInstallments(new PayLoanRequest(loanId, amount))));
+        }
+        return min;
+    }
+
+    private long minStatements(Supplier<?> action) {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < REPETITIONS; i++) {
+            min = Math.min(min, statements(action));
+        }
+        return min;
+    }
+
+    private long statements(Supplier<?> action) {
+        statistics.clear();
+        action.get();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,124 @@
+package tr.com.xbank.credit.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tr.com.xbank.credit.dto.request.LoanFilter;
+import tr.com.xbank.credit.dto.response.LoanDto;
+import tr.com.xbank.credit.dto.response.LoanPage;
+import tr.com.xbank.credit.exception.ResourceNotFoundException;
+import tr.com.xbank.credit.support.CustomerFixture;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import(CustomerFixture.class)
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LoanStreamServiceTest {
+
+    // above the ids handed out by the sequences to the other tests of the context
+    private static final long ID_OFFSET = 2_000_000;
+    // more than one page and more than one fetch
+    private static final int LOANS = 1_234;
+    private static final String PATH = "/credit/loans/customer/";
+
+    @Autowired
+    private CustomerFixture customers;
+
+    @Autowired
+    private LoanStreamService loanStreamService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long customerId;
+    private Long emptyCustomerId;
+
+    @BeforeAll
+    void seedLoans() {
+        customerId = customers.create("Stream", BigDecimal.valueOf(100_000_000)).getId();
+        emptyCustomerId = customers.create("Empty", BigDecimal.valueOf(1000)).getId();
+        jdbcTemplate.update("""
+                INSERT INTO loans (id, customer_id, loan_amount, number_of_installment, interest_rate, create_date, is_paid)
+                SELECT ? + X, ?, 1000 + X, 6, 0.1, CURRENT_TIMESTAMP, MOD(X, 3) = 0
+                FROM SYSTEM_RANGE(1, ?)""", ID_OFFSET, customerId, LOANS);
+    }
+
+    @Test
+    @DisplayName("The streamed envelope should hold the same loans as all pages of the paged listing")
+    void writeLoans_MatchesPagedListing() throws Exception {
+        LoanFilter filter = new LoanFilter(false, null, null, null, null);
+
+        JsonNode response = objectMapper.readTree(write(filter, LoanStreamService.Format.JSON));
+
+        assertTrue(response.get("success").asBoolean());
+        assertEquals(PATH + customerId, response.get("path").asText());
+        assertTrue(response.get("errors").isNull());
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(allPages(filter))), response.get("data"));
+    }
+
+    @Test
+    @DisplayName("NDJSON should write one loan per line, after the given loan id")
+    void writeLoans_Ndjson() throws Exception {
+        long after = ID_OFFSET + LOANS - 10;
+
+        String[] lines = write(new LoanFilter(null, null, null, after, null), LoanStreamService.Format.NDJSON).split("\n");
+
+        assertEquals(10, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(after + i + 1, objectMapper.readValue(lines[i], LoanDto.class).id());
+        }
+    }
+
+    @Test
+    @DisplayName("A customer without loans should be not found on the first page and empty after it")
+    void writeLoans_NotFound() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThrows(ResourceNotFoundException.class, () -> loanStreamService.writeLoansByCustomerId(
+                emptyCustomerId, LoanFilter.firstPage(), LoanStreamService.Format.JSON, PATH + emptyCustomerId, out));
+        assertEquals(0, out.size());
+
+        loanStreamService.writeLoansByCustomerId(emptyCustomerId, new LoanFilter(null, null, null, 1L, null),
+                LoanStreamService.Format.JSON, PATH + emptyCustomerId, out);
+        assertEquals(0, objectMapper.readTree(out.toByteArray()).get("data").size());
+    }
+
+    private String write(LoanFilter filter, LoanStreamService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        loanStreamService.writeLoansByCustomerId(customerId, filter, format, PATH + customerId, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private List<LoanDto> allPages(LoanFilter filter) {
+        List<LoanDto> loans = new ArrayList<>();
+        Long after = null;
+        do {
+            LoanPage page = loanService.getLoansByCustomerId(customerId, new LoanFilter(
+                    filter.isPaid(), filter.createdFrom(), filter.createdTo(), after, LoanFilter.MAX_LIMIT));
+            loans.addAll(page.loans());
+            after = page.nextAfter();
+        } while (after != null);
+        return loans;
+    }
+}
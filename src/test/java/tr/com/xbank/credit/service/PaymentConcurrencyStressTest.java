@@ -0,0 +1,143 @@
+package tr.com.xbank.credit.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.dto.request.PayLoanRequest;
+import tr.com.xbank.credit.dto.response.PaymentResult;
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.LoanInstallment;
+import tr.com.xbank.credit.exception.ResourceNotFoundException;
+import tr.com.xbank.credit.repository.LoanInstallmentRepository;
+import tr.com.xbank.credit.support.CustomerFixture;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers a few hot loans with concurrent payments and verifies that every installment is paid at
+ * most once, i.e. the installments reported as paid match the rows marked paid. Latency percentiles
+ * of payLoanInstallments are logged for each lock mode.
+ */
+@Slf4j
+@Import(CustomerFixture.class)
+@SpringBootTest
+class PaymentConcurrencyStressTest {
+
+    private static final int THREADS = 32;
+    private static final int PAYMENTS_PER_THREAD = 20;
+    private static final int HOT_LOANS = 4;
+
+    @Autowired
+    private CustomerFixture customers;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanInstallmentRepository loanInstallmentRepository;
+
+    @Test
+    @DisplayName("Striped locks should never pay an installment twice")
+    void payLoanInstallments_StripedLock() throws Exception {
+        runStress("striped");
+    }
+
+    @Nested
+    @TestPropertySource(properties = "app.loan.payment-lock.mode=pessimistic")
+    class PessimisticLockTests {
+
+        @Test
+        @DisplayName("SELECT ... FOR UPDATE should never pay an installment twice")
+        void payLoanInstallments_PessimisticLock() throws Exception {
+            runStress("pessimistic");
+        }
+    }
+
+    void runStress(String mode) throws Exception {
+        Customer customer = customers.create("Stress", BigDecimal.valueOf(100000));
+        List<Long> loanIds = new ArrayList<>();
+        for (int i = 0; i < HOT_LOANS; i++) {
+            loanIds.add(loanService.createLoan(
+                    new CreateLoanRequest(customer.getId(), BigDecimal.valueOf(1200), BigDecimal.valueOf(0.1), 24)).id());
+        }
+
+        // 24 installments of 55.00, this pays exactly one of them per call
+        BigDecimal paymentAmount = BigDecimal.valueOf(80);
+
+        AtomicInteger reportedPaid = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        long[] latencies = new long[THREADS * PAYMENTS_PER_THREAD];
+        AtomicInteger latencyIndex = new AtomicInteger();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < PAYMENTS_PER_THREAD; i++) {
+                    Long loanId = loanIds.get(ThreadLocalRandom.current().nextInt(HOT_LOANS));
+                    long begin = System.nanoTime();
+                    try {
+                        PaymentResult result = loanService.payLoanInstallments(new PayLoanRequest(loanId, paymentAmount));
+                        reportedPaid.addAndGet(result.installmentsPaid());
+                    } catch (ResourceNotFoundException | IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    } finally {
+                        latencies[latencyIndex.getAndIncrement()] = System.nanoTime() - begin;
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        long paidRows = loanIds.stream()
+                .flatMap(loanId -> loanInstallmentRepository.findByLoanId(loanId).stream())
+                .filter(LoanInstallment::isPaid)
+                .count();
+
+        Arrays.sort(latencies);
+        log.info("payLoanInstallments [{}]: {} calls on {} threads over {} loans in {} ms, p50={} us, p99={} us, " +
+                        "max={} us, {} installments paid, {} rejected",
+                mode, latencies.length, THREADS, HOT_LOANS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                percentileMicros(latencies, 0.50), percentileMicros(latencies, 0.99),
+                TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length - 1]), reportedPaid.get(), rejected.get());
+
+        assertTrue(reportedPaid.get() > 0);
+        assertEquals(paidRows, reportedPaid.get(), "an installment was paid more than once");
+        assertEquals(latencies.length, reportedPaid.get() + rejected.get());
+    }
+
+    private static long percentileMicros(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return TimeUnit.NANOSECONDS.toMicros(sortedNanos[Math.max(0, index)]);
+    }
+}
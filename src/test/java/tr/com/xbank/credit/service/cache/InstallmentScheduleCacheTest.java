@@ -0,0 +1,134 @@
+package tr.com.xbank.credit.service.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tr.com.xbank.credit.dto.response.InstallmentDto;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstallmentScheduleCacheTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LocalCacheInvalidationBus bus = new LocalCacheInvalidationBus();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private InstallmentScheduleCache node1;
+    private InstallmentScheduleCache node2;
+
+    @BeforeEach
+    void setUp() {
+        node1 = cache(Optional.of(bus), true);
+        node2 = cache(Optional.of(bus), true);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should load a schedule once and serve it from the cache afterwards")
+    void get_LoadsOnce() {
+        node1.get(1L, loader());
+        node1.get(1L, loader());
+
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", InstallmentScheduleCache.NAME)
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should not cache empty schedules")
+    void get_EmptyScheduleNotCached() {
+        assertTrue(node1.get(1L, id -> List.of()).isEmpty());
+
+        node1.get(1L, loader());
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should evict only after the transaction commits")
+    void evictAfterCommit_WaitsForCommit() {
+        node1.get(1L, loader());
+        TransactionSynchronizationManager.initSynchronization();
+
+        node1.evictAfterCommit(1L);
+        node1.get(1L, loader());
+        assertEquals(1, loads.get());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        node1.get(1L, loader());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should keep the entry when the transaction rolls back")
+    void evictAfterCommit_RolledBack() {
+        node1.get(1L, loader());
+        TransactionSynchronizationManager.initSynchronization();
+
+        node1.evictAfterCommit(1L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        node1.get(1L, loader());
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should evict the entries of other nodes through the invalidation bus")
+    void evictAfterCommit_PublishedToOtherNodes() {
+        node1.get(1L, loader());
+        node2.get(1L, loader());
+        node2.get(2L, loader());
+
+        node1.evictAfterCommit(List.of(1L));
+        node2.get(1L, loader());
+        node2.get(2L, loader());
+
+        assertEquals(4, loads.get());
+        assertEquals(1, meterRegistry.get("cache.invalidations").tag("origin", "local").counter().count());
+        assertEquals(1, meterRegistry.get("cache.invalidations").tag("origin", "remote").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should always load when disabled")
+    void get_Disabled() {
+        InstallmentScheduleCache disabled = cache(Optional.empty(), false);
+
+        disabled.get(1L, loader());
+        disabled.get(1L, loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    private InstallmentScheduleCache cache(Optional<CacheInvalidationBus> invalidationBus, boolean enabled) {
+        return new InstallmentScheduleCache(meterRegistry, invalidationBus, enabled, 100, Duration.ofMinutes(1));
+    }
+
+    private Function<Long, List<InstallmentDto>> loader() {
+        return loanId -> {
+            loads.incrementAndGet();
+            return List.of(new InstallmentDto(1L, loanId, BigDecimal.TEN, BigDecimal.ZERO,
+                    LocalDate.now().plusMonths(1), null, false));
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package tr.com.xbank.credit.service.delinquency;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tr.com.xbank.credit.dto.response.DelinquencyReport;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+// small ranges and several workers, so loans are spread over many parallel range scans
+@SpringBootTest(properties = {
+        "app.loan.delinquency.workers=4",
+        "app.loan.delinquency.range-size=7",
+        "app.loan.delinquency.fetch-size=10"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DelinquencyScannerTest {
+
+    // above the ids handed out by the sequences to the data initializer
+    private static final long ID_OFFSET = 1_000;
+    private static final long CUSTOMER_ID = ID_OFFSET;
+
+    @Autowired
+    private DelinquencyScanner scanner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seedCustomer() {
+        jdbcTemplate.update("""
+                INSERT INTO customers (id, name, surname, username, password, email, credit_limit, version)
+                VALUES (?, 'Delinquency', 'Test', 'delinquency', 'not-used', 'delinquency@example.com', 1000000, 0)""",
+                CUSTOMER_ID);
+    }
+
+    @Test
+    @DisplayName("Overdue installments should be bucketed with the penalties a payment would be charged")
+    void scan_BucketsOverdueInstallments() {
+        // the installments of the data initializer are due after this date
+        LocalDate asOf = LocalDate.of(2020, 6, 30);
+        insertLoan(ID_OFFSET + 1);
+        insertInstallment(ID_OFFSET + 1, "100.00", asOf.minusDays(70), true);
+        insertInstallment(ID_OFFSET + 1, "100.00", asOf.minusDays(40), false);
+        insertInstallment(ID_OFFSET + 1, "100.00", asOf.minusDays(10), false);
+        insertInstallment(ID_OFFSET + 1, "100.00", asOf, false);
+        insertLoan(ID_OFFSET + 2);
+        insertInstallment(ID_OFFSET + 2, "183.33", asOf.minusDays(95), false);
+        insertInstallment(ID_OFFSET + 2, "183.33", asOf.minusDays(65), false);
+
+        DelinquencyReport report = scanner.scan(asOf);
+
+        assertEquals(2, report.overdueLoans());
+        assertEquals(4, report.overdueInstallments());
+        assertEquals(new BigDecimal("566.66"), report.overdueAmount());
+        assertEquals(new BigDecimal("34.33280"), report.penalty());
+        assertEquals(List.of(
+                new DelinquencyReport.Bucket("1-30", 0, 1, new BigDecimal("100.00"), new BigDecimal("1.00000")),
+                new DelinquencyReport.Bucket("31-60", 1, 1, new BigDecimal("100.00"), new BigDecimal("4.00000")),
+                new DelinquencyReport.Bucket("61-90", 0, 1, new BigDecimal("183.33"), new BigDecimal("11.91645")),
+                new DelinquencyReport.Bucket("90+", 1, 1, new BigDecimal("183.33"), new BigDecimal("17.41635"))
+        ), report.buckets());
+        assertSame(report, scanner.latestReport().orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Parallel range scans should add up to the totals of the whole table")
+    void scan_MatchesTableTotals() {
+        int loans = 500;
+        int installmentsPerLoan = 12;
+        long firstLoanId = ID_OFFSET + 100;
+        LocalDate asOf = LocalDate.of(2031, 6, 1);
+
+        jdbcTemplate.update("""
+                INSERT INTO loans (id, customer_id, loan_amount, number_of_installment, interest_rate, create_date, is_paid)
+                SELECT ? + X, ?, 1000, ?, 0.1, CURRENT_TIMESTAMP, FALSE
+                FROM SYSTEM_RANGE(0, ?)""", firstLoanId, CUSTOMER_ID, installmentsPerLoan, loans - 1);
+        // schedules starting on different days, every fifth installment paid
+        jdbcTemplate.update("""
+                INSERT INTO loan_installments (id, loan_id, amount, paid_amount, due_date, payment_date, is_paid)
+                SELECT ? + X, ? + X / ?, 50 + MOD(X, 97) + 0.37, 0,
+                       DATEADD(MONTH, MOD(X, ?), DATEADD(DAY, MOD(X / ?, 400), DATE '2030-06-01')), NULL, MOD(X, 5) = 0
+                FROM SYSTEM_RANGE(0, ?)""",
+                ID_OFFSET * 100, firstLoanId, installmentsPerLoan, installmentsPerLoan, installmentsPerLoan,
+                loans * installmentsPerLoan - 1);
+
+        DelinquencyReport report = scanner.scan(asOf);
+
+        Map<String, Object> expected = jdbcTemplate.queryForMap("""
+                SELECT COUNT(DISTINCT loan_id) AS loans, COUNT(*) AS installments, SUM(amount) AS amount,
+                       SUM(amount * DATEDIFF(DAY, due_date, ?) * 0.001) AS penalty
+                FROM loan_installments WHERE is_paid = FALSE AND due_date < ?""", asOf, asOf);
+        assertEquals(((Number) expected.get("LOANS")).longValue(), report.overdueLoans());
+        assertEquals(((Number) expected.get("INSTALLMENTS")).longValue(), report.overdueInstallments());
+        assertEquals(0, ((BigDecimal) expected.get("AMOUNT")).compareTo(report.overdueAmount()));
+        assertEquals(0, ((BigDecimal) expected.get("PENALTY")).compareTo(report.penalty()));
+
+        List<Long> loansByOldestOverdue = jdbcTemplate.queryForList("""
+                SELECT COUNT(*) FROM (
+                    SELECT CASE WHEN d <= 30 THEN 0 WHEN d <= 60 THEN 1 WHEN d <= 90 THEN 2 ELSE 3 END AS bucket
+                    FROM (SELECT MAX(DATEDIFF(DAY, due_date, ?)) AS d FROM loan_installments
+                          WHERE is_paid = FALSE AND due_date < ? GROUP BY loan_id))
+                GROUP BY bucket ORDER BY bucket""", Long.class, asOf, asOf);
+        assertEquals(loansByOldestOverdue, report.buckets().stream().map(DelinquencyReport.Bucket::loans).toList());
+    }
+
+    private void insertLoan(long loanId) {
+        jdbcTemplate.update("""
+                INSERT INTO loans (id, customer_id, loan_amount, number_of_installment, interest_rate, create_date, is_paid)
+                VALUES (?, ?, 1000, 6, 0.1, CURRENT_TIMESTAMP, FALSE)""", loanId, CUSTOMER_ID);
+    }
+
+    private void insertInstallment(long loanId, String amount, LocalDate dueDate, boolean paid) {
+        jdbcTemplate.update("""
+                INSERT INTO loan_installments (id, loan_id, amount, paid_amount, due_date, payment_date, is_paid)
+                VALUES ((SELECT COALESCE(MAX(id), 0) + 1 FROM loan_installments), ?, ?, 0, ?, NULL, ?)""",
+                loanId, new BigDecimal(amount), dueDate, paid);
+    }
+}
@@ -0,0 +1,146 @@
+package tr.com.xbank.credit.service.reconciliation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tr.com.xbank.credit.dto.request.BulkPaymentRecord;
+import tr.com.xbank.credit.dto.request.CreateLoanRequest;
+import tr.com.xbank.credit.dto.request.PayLoanRequest;
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.Loan;
+import tr.com.xbank.credit.repository.CustomerCreditRepository;
+import tr.com.xbank.credit.repository.LoanRepository;
+import tr.com.xbank.credit.service.LoanService;
+import tr.com.xbank.credit.support.CustomerFixture;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// a batch size of 3 makes the loans of a test span several batches
+@Import(CustomerFixture.class)
+@SpringBootTest(properties = "app.loan.reconciliation.batch-size=3")
+class LoanBalanceReconcilerTest {
+
+    @Autowired
+    private CustomerFixture customers;
+
+    @Autowired
+    private LoanBalanceReconciler reconciler;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private CustomerCreditRepository customerCreditRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = customers.create("Reconciliation", BigDecimal.valueOf(100000));
+
+        // loans of earlier tests are left consistent
+        reconciler.reconcile();
+    }
+
+    @Test
+    @DisplayName("Balances kept by loan creation and payments should match the installments")
+    void reconcile_NothingToCorrectAfterPayments() {
+        List<Long> loanIds = createLoans(7);
+
+        loanService.payLoanInstallments(new PayLoanRequest(loanIds.get(0), BigDecimal.valueOf(250)));
+        loanService.payLoanInstallments(new PayLoanRequest(loanIds.get(1), BigDecimal.valueOf(1000)));
+        loanService.payLoans(List.of(
+                new BulkPaymentRecord(1, new PayLoanRequest(loanIds.get(2), BigDecimal.valueOf(100))),
+                new BulkPaymentRecord(2, new PayLoanRequest(loanIds.get(2), BigDecimal.valueOf(100))),
+                new BulkPaymentRecord(3, new PayLoanRequest(loanIds.get(3), BigDecimal.valueOf(1000)))));
+
+        assertEquals(0, reconciler.reconcile());
+    }
+
+    @Test
+    @DisplayName("Drifted balances should be corrected from the installments")
+    void reconcile_CorrectsDriftedBalances() {
+        List<Long> loanIds = createLoans(5);
+        Long drifted = loanIds.get(1);
+        Long emptied = loanIds.get(3);
+        double corrections = meterRegistry.get("credit.loan.reconciliation.corrections").counter().count();
+
+        jdbcTemplate.update("UPDATE loans SET unpaid_installment_count = 2, outstanding_amount = 1, next_due_date = NULL " +
+                "WHERE id = ?", drifted);
+        jdbcTemplate.update("UPDATE loan_installments SET is_paid = TRUE WHERE loan_id = ?", emptied);
+
+        assertEquals(2, reconciler.reconcile());
+        assertEquals(0, reconciler.reconcile());
+        assertEquals(corrections + 2, meterRegistry.get("credit.loan.reconciliation.corrections").counter().count());
+
+        Loan driftedLoan = loanRepository.findById(drifted).orElseThrow();
+        assertEquals(6, driftedLoan.getUnpaidInstallmentCount());
+        assertEquals(0, new BigDecimal("1320.00").compareTo(driftedLoan.getOutstandingAmount()));
+        assertEquals(LocalDate.now().withDayOfMonth(1).plusMonths(1), driftedLoan.getNextDueDate());
+
+        Loan emptiedLoan = loanRepository.findById(emptied).orElseThrow();
+        assertEquals(0, emptiedLoan.getUnpaidInstallmentCount());
+        assertEquals(0, BigDecimal.ZERO.compareTo(emptiedLoan.getOutstandingAmount()));
+        assertNull(emptiedLoan.getNextDueDate());
+        assertTrue(emptiedLoan.isPaid());
+        assertFalse(driftedLoan.isPaid());
+        assertEquals(0, BigDecimal.valueOf(4000).compareTo(usedCreditLimit()));
+    }
+
+    @Test
+    @DisplayName("An open loan without unpaid installments should be closed and its credit released")
+    void reconcile_ClosesLoansWithoutUnpaidInstallments() {
+        List<Long> loanIds = createLoans(2);
+        Long settled = loanIds.get(0);
+        double closures = meterRegistry.get("credit.loan.reconciliation.closures").counter().count();
+
+        // the counters agree with the installments, only the loan was left open
+        jdbcTemplate.update("UPDATE loan_installments SET is_paid = TRUE WHERE loan_id = ?", settled);
+        jdbcTemplate.update("UPDATE loans SET unpaid_installment_count = 0, outstanding_amount = 0, next_due_date = NULL " +
+                "WHERE id = ?", settled);
+
+        assertEquals(1, reconciler.reconcile());
+        assertEquals(0, reconciler.reconcile());
+        assertEquals(closures + 1, meterRegistry.get("credit.loan.reconciliation.closures").counter().count());
+
+        assertTrue(loanRepository.findById(settled).orElseThrow().isPaid());
+        assertFalse(loanRepository.findById(loanIds.get(1)).orElseThrow().isPaid());
+        assertEquals(0, BigDecimal.valueOf(1000).compareTo(usedCreditLimit()));
+    }
+
+    private BigDecimal usedCreditLimit() {
+        return customerCreditRepository.findById(customer.getId()).orElseThrow().getUsedCreditLimit();
+    }
+
+    // 6 installments of 220.00 each
+    private List<Long> createLoans(int count) {
+        List<Long> loanIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            loanIds.add(loanService.createLoan(new CreateLoanRequest(
+                    customer.getId(), BigDecimal.valueOf(1000), BigDecimal.valueOf(0.32), 6)).id());
+        }
+        return loanIds;
+    }
+}
@@ -0,0 +1,35 @@
+package tr.com.xbank.credit.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+import tr.com.xbank.credit.entity.Customer;
+import tr.com.xbank.credit.entity.CustomerCredit;
+import tr.com.xbank.credit.repository.CustomerCreditRepository;
+import tr.com.xbank.credit.repository.CustomerRepository;
+
+import java.math.BigDecimal;
+
+/**
+ * Customers for service tests that do not log in: a unique username, so test classes can share a
+ * context and its database, and the empty credit row every customer starts with.
+ */
+@TestComponent
+@RequiredArgsConstructor
+public class CustomerFixture {
+
+    private final CustomerRepository customerRepository;
+    private final CustomerCreditRepository customerCreditRepository;
+
+    public Customer create(String name, BigDecimal creditLimit) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setSurname("Test");
+        customer.setUsername(name.toLowerCase() + System.nanoTime());
+        customer.setPassword("not-used");
+        customer.setEmail(customer.getUsername() + "@example.com");
+        customer.setCreditLimit(creditLimit);
+        Customer saved = customerRepository.save(customer);
+        customerCreditRepository.save(new CustomerCredit(saved.getId()));
+        return saved;
+    }
+}
@@ -0,0 +1,46 @@
+package tr.com.xbank.credit.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The BigDecimal formulas {@link MoneyMath} replaced, kept verbatim as the oracle its results must
+ * match bit for bit.
+ */
+final class MoneyMathReference {
+
+    private MoneyMathReference() {
+    }
+
+    static BigDecimal calculateTotalLoanAmount(BigDecimal principal, BigDecimal interestRate) {
+        return principal.multiply(BigDecimal.ONE.add(interestRate));
+    }
+
+    static BigDecimal calculateInstallmentAmount(BigDecimal totalAmount, int numberOfInstallments) {
+        return totalAmount.divide(BigDecimal.valueOf(numberOfInstallments), 2, RoundingMode.HALF_UP);
+    }
+
+    static BigDecimal calculateAdjustedAmount(BigDecimal baseAmount, LocalDate dueDate, LocalDate today) {
+        long daysDifference = ChronoUnit.DAYS.between(today, dueDate);
+
+        BigDecimal adjustmentRate = BigDecimal.valueOf(0.001);
+
+        if (daysDifference > 0) {
+            // Early payment discount
+            BigDecimal discount = baseAmount
+                    .multiply(adjustmentRate)
+                    .multiply(BigDecimal.valueOf(daysDifference));
+            return baseAmount.subtract(discount);
+        } else if (daysDifference < 0) {
+            // Late payment penalty
+            BigDecimal penalty = baseAmount
+                    .multiply(adjustmentRate)
+                    .multiply(BigDecimal.valueOf(Math.abs(daysDifference)));
+            return baseAmount.add(penalty);
+        }
+
+        return baseAmount;
+    }
+}
@@ -0,0 +1,151 @@
+package tr.com.xbank.credit.util;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.From;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Property based equivalence of {@link MoneyMath} with the BigDecimal formulas it replaced: every
+ * result must be equal in value and scale, i.e. {@link BigDecimal#equals}.
+ */
+class MoneyMathTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 15);
+
+    record Installment(BigDecimal amount, long daysUntilDue) {}
+
+    @Property(tries = 5000)
+    void adjustedAmountMatchesReference(@ForAll("installmentAmounts") BigDecimal amount,
+                                        @ForAll @IntRange(min = -4000, max = 4000) int daysUntilDue) {
+        BigDecimal expected = MoneyMathReference.calculateAdjustedAmount(amount, TODAY.plusDays(daysUntilDue), TODAY);
+
+        assertEquals(expected, MoneyMath.adjustedAmount(amount, daysUntilDue));
+    }
+
+    @Property(tries = 5000)
+    void installmentAmountMatchesReference(@ForAll("principals") BigDecimal principal,
+                                           @ForAll("interestRates") BigDecimal interestRate,
+                                           @ForAll @IntRange(min = 1, max = 120) int numberOfInstallments) {
+        BigDecimal expected = MoneyMathReference.calculateInstallmentAmount(
+                MoneyMathReference.calculateTotalLoanAmount(principal, interestRate), numberOfInstallments);
+
+        assertEquals(expected, MoneyMath.installmentAmount(principal, interestRate, numberOfInstallments));
+    }
+
+    @Property(tries = 500)
+    void installmentAmountBeyondLongRangeMatchesReference(@ForAll("hugePrincipals") BigDecimal principal,
+                                                          @ForAll("interestRates") BigDecimal interestRate,
+                                                          @ForAll @IntRange(min = 1, max = 120) int numberOfInstallments) {
+        BigDecimal expected = MoneyMathReference.calculateInstallmentAmount(
+                MoneyMathReference.calculateTotalLoanAmount(principal, interestRate), numberOfInstallments);
+
+        assertEquals(expected, MoneyMath.installmentAmount(principal, interestRate, numberOfInstallments));
+    }
+
+    // the payment loop of LoanServiceImpl, once on BigDecimal and once on units
+    @Property(tries = 5000)
+    void paymentAllocationMatchesReference(@ForAll("payments") BigDecimal payment,
+                                           @ForAll @Size(min = 1, max = 24) List<@From("installments") Installment> installments) {
+        BigDecimal remainingAmount = payment;
+        long remainingUnits = MoneyMath.toUnitsFloor(payment);
+
+        for (Installment installment : installments) {
+            BigDecimal expected = MoneyMathReference.calculateAdjustedAmount(
+                    installment.amount(), TODAY.plusDays(installment.daysUntilDue()), TODAY);
+            long adjustedUnits = MoneyMath.adjustedUnits(MoneyMath.toUnits(installment.amount()), installment.daysUntilDue());
+
+            boolean covered = remainingAmount.compareTo(expected) >= 0;
+            assertEquals(covered, remainingUnits >= adjustedUnits);
+            if (!covered) {
+                break;
+            }
+
+            assertEquals(expected, MoneyMath.toAdjustedAmount(installment.amount(), adjustedUnits, installment.daysUntilDue()));
+            remainingAmount = remainingAmount.subtract(expected);
+            remainingUnits -= adjustedUnits;
+        }
+    }
+
+    // inside the table and past both of its ends
+    @Property(tries = 5000)
+    void adjustmentTableMatchesAdjustedUnits(@ForAll("installmentAmounts") BigDecimal amount,
+                                             @ForAll @IntRange(min = -4000, max = 400) int daysUntilDue) {
+        long baseUnits = MoneyMath.toUnits(amount);
+        AdjustmentTable table = AdjustmentTable.forDate(TODAY);
+
+        assertEquals(daysUntilDue, table.daysUntilDue(TODAY.plusDays(daysUntilDue)));
+        assertEquals(MoneyMath.adjustedUnits(baseUnits, daysUntilDue), table.adjustedUnits(baseUnits, daysUntilDue));
+    }
+
+    @Example
+    void amountsBeyondLongUnitsAreRejected() {
+        BigDecimal tooLarge = BigDecimal.valueOf(Long.MAX_VALUE);
+
+        assertThrows(IllegalArgumentException.class, () -> MoneyMath.toUnitsFloor(tooLarge));
+        assertThrows(IllegalArgumentException.class, () -> MoneyMath.toUnits(new BigDecimal("0.000001")));
+    }
+
+    @Provide
+    Arbitrary<BigDecimal> installmentAmounts() {
+        return Combinators.combine(
+                Arbitraries.longs().between(0, 1_000_000_000_000L),
+                Arbitraries.integers().between(0, 2)
+        ).as(BigDecimal::valueOf);
+    }
+
+    @Provide
+    Arbitrary<Installment> installments() {
+        return Combinators.combine(
+                installmentAmounts(),
+                Arbitraries.longs().between(-400, 400)
+        ).as(Installment::new);
+    }
+
+    // up to 10^13, beyond that a payment no longer fits in long units
+    @Provide
+    Arbitrary<BigDecimal> payments() {
+        return Combinators.combine(
+                Arbitraries.longs().between(1, 10_000_000_000_000L),
+                Arbitraries.integers().between(0, 8)
+        ).as(BigDecimal::valueOf);
+    }
+
+    @Provide
+    Arbitrary<BigDecimal> principals() {
+        return Combinators.combine(
+                Arbitraries.longs().between(1, 1_000_000_000_000_000L),
+                Arbitraries.integers().between(0, 6)
+        ).as(BigDecimal::valueOf);
+    }
+
+    @Provide
+    Arbitrary<BigDecimal> hugePrincipals() {
+        return Combinators.combine(
+                Arbitraries.bigIntegers().between(BigInteger.TEN.pow(18), BigInteger.TEN.pow(30)),
+                Arbitraries.integers().between(0, 6)
+        ).as(BigDecimal::new);
+    }
+
+    @Provide
+    Arbitrary<BigDecimal> interestRates() {
+        return Combinators.combine(
+                Arbitraries.longs().between(0, 100_000),
+                Arbitraries.integers().between(0, 5)
+        ).as(BigDecimal::valueOf);
+    }
+}